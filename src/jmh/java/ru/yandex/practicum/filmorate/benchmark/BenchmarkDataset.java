@@ -0,0 +1,112 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import ru.yandex.practicum.filmorate.dao.Impl.FilmDbStorage;
+import ru.yandex.practicum.filmorate.dao.Impl.GenreDbStorageImpl;
+import ru.yandex.practicum.filmorate.dao.Impl.MpaDbStorageImpl;
+import ru.yandex.practicum.filmorate.dao.Impl.UserDbStorage;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+
+public class BenchmarkDataset {
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Random random = new Random(42);
+
+    public BenchmarkDataset() {
+        this(10, "");
+    }
+
+    public BenchmarkDataset(int poolSize, String urlOptions) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:benchmark" + System.nanoTime() + ";DB_CLOSE_DELAY=-1" + urlOptions);
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(poolSize);
+
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(
+                new ClassPathResource("schema.sql"), new ClassPathResource("data.sql"));
+        populator.setSqlScriptEncoding("UTF-8");
+        populator.execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public JdbcTemplate getJdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    public FilmDbStorage filmStorage() {
+        MpaDbStorageImpl mpaDbStorage = new MpaDbStorageImpl(jdbcTemplate);
+        mpaDbStorage.refresh();
+        GenreDbStorageImpl genreDbStorage = new GenreDbStorageImpl(jdbcTemplate);
+        genreDbStorage.refresh();
+
+        FilmDbStorage filmStorage = new FilmDbStorage(jdbcTemplate, mpaDbStorage, genreDbStorage);
+        filmStorage.loadPopularityIndex();
+        filmStorage.loadCoLikeIndex();
+        return filmStorage;
+    }
+
+    public UserDbStorage userStorage() {
+        return new UserDbStorage(jdbcTemplate);
+    }
+
+    public void addUsers(int count) {
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            rows.add(new Object[]{"user" + i + "@mail.ru", "user" + i, "User " + i, Date.valueOf("1990-01-01")});
+        }
+        batch("INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)", rows);
+    }
+
+    public void addFilms(int count, int genresPerFilm) {
+        List<Object[]> films = new ArrayList<>(count);
+        List<Object[]> genres = new ArrayList<>(count * genresPerFilm);
+        for (int i = 1; i <= count; i++) {
+            LocalDate releaseDate = LocalDate.of(1950 + random.nextInt(70), 1 + random.nextInt(12), 1);
+            films.add(new Object[]{"Film " + i, "Description of film " + i, 1 + random.nextInt(5),
+                    Date.valueOf(releaseDate), 60 + random.nextInt(120)});
+            for (int genreId = 1; genreId <= genresPerFilm; genreId++) {
+                genres.add(new Object[]{i, genreId});
+            }
+        }
+        batch("INSERT INTO films (name, description, mpa_id, release_date, duration) VALUES (?, ?, ?, ?, ?)", films);
+        batch("INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)", genres);
+    }
+
+    public void addLikes(int films, int users, int likesPerFilm) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int filmId = 1; filmId <= films; filmId++) {
+            int likes = random.nextInt(likesPerFilm * 2 + 1);
+            Set<Integer> userIds = new HashSet<>();
+            while (userIds.size() < Math.min(likes, users)) {
+                userIds.add(1 + random.nextInt(users));
+            }
+            for (int userId : userIds) {
+                rows.add(new Object[]{filmId, userId});
+            }
+        }
+        batch("INSERT INTO likes (film_id, user_id) VALUES (?, ?)", rows);
+        jdbcTemplate.update("UPDATE films f SET likes_count = " +
+                "(SELECT COUNT(*) FROM likes l WHERE l.film_id = f.film_id)");
+    }
+
+    public void addFriends(int userId, Collection<Integer> friendIds) {
+        List<Object[]> rows = new ArrayList<>(friendIds.size());
+        for (int friendId : friendIds) {
+            rows.add(new Object[]{userId, friendId});
+        }
+        batch("INSERT INTO friends (user_id, friend_id) VALUES (?, ?)", rows);
+    }
+
+    private void batch(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+    }
+}
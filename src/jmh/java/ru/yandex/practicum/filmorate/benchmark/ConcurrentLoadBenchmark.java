@@ -0,0 +1,74 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.dao.Impl.FilmDbStorage;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrentLoadBenchmark {
+    @Param("1000")
+    private int films;
+    @Param("1000")
+    private int users;
+    @Param("20")
+    private int likesPerFilm;
+    @Param({"4", "16"})
+    private int poolSize;
+    @Param({"", ";QUERY_CACHE_SIZE=64"})
+    private String urlOptions;
+
+    private FilmDbStorage filmStorage;
+    private final AtomicInteger writerIds = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDataset dataset = new BenchmarkDataset(poolSize, urlOptions);
+        dataset.addUsers(users + 64);
+        dataset.addFilms(films, 2);
+        dataset.addLikes(films, users, likesPerFilm);
+        filmStorage = dataset.filmStorage();
+    }
+
+    @State(Scope.Thread)
+    public static class Writer {
+        private int userId;
+
+        @Setup(Level.Trial)
+        public void setUp(ConcurrentLoadBenchmark benchmark) {
+            userId = benchmark.users + 1 + benchmark.writerIds.getAndIncrement();
+        }
+    }
+
+    @Benchmark
+    @Group("mix")
+    @GroupThreads(6)
+    public Film readFilm() {
+        return filmStorage.findById(1 + ThreadLocalRandom.current().nextInt(films));
+    }
+
+    @Benchmark
+    @Group("mix")
+    @GroupThreads(1)
+    public List<Film> readPopular() {
+        return filmStorage.findPopular(10);
+    }
+
+    @Benchmark
+    @Group("mix")
+    @GroupThreads(1)
+    public void toggleLike(Writer writer) {
+        int filmId = 1 + ThreadLocalRandom.current().nextInt(films);
+        filmStorage.addLike(writer.userId, filmId);
+        filmStorage.removeLike(writer.userId, filmId);
+    }
+}
@@ -0,0 +1,90 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.storage.FilmSearchIndex;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx3g")
+public class FilmSearchBenchmark {
+    private static final String[] SYLLABLES = {"ка", "ро", "ми", "ла", "то", "не", "ва", "ст", "ки", "но", "ре",
+            "да", "по", "лю", "бо", "ге", "ма", "тр", "ик", "ол"};
+
+    @Param("1000000")
+    private int films;
+    @Param("20000")
+    private int words;
+
+    private FilmSearchIndex searchIndex;
+    private String[] vocabulary;
+    private int[] likes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        vocabulary = new String[words];
+        for (int i = 0; i < words; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int value = i; word.length() == 0 || value > 0; value /= SYLLABLES.length) {
+                word.append(SYLLABLES[value % SYLLABLES.length]);
+            }
+            vocabulary[i] = word.toString();
+        }
+
+        searchIndex = new FilmSearchIndex();
+        likes = new int[films + 1];
+        for (int filmId = 1; filmId <= films; filmId++) {
+            searchIndex.put(filmId, text(random, 1 + random.nextInt(4)), text(random, 8 + random.nextInt(8)));
+            likes[filmId] = random.nextInt(1000);
+        }
+    }
+
+    @Benchmark
+    public List<Integer> searchRareWord() {
+        return search(vocabulary[words / 2 + ThreadLocalRandom.current().nextInt(words / 2)]);
+    }
+
+    @Benchmark
+    public List<Integer> searchCommonWord() {
+        return search(vocabulary[ThreadLocalRandom.current().nextInt(10)]);
+    }
+
+    @Benchmark
+    public List<Integer> searchTwoWords() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return search(vocabulary[random.nextInt(words)] + " " + vocabulary[random.nextInt(words)]);
+    }
+
+    @Benchmark
+    public List<Integer> searchPrefix() {
+        String word = vocabulary[words / 2 + ThreadLocalRandom.current().nextInt(words / 2)];
+        return search(word.substring(0, word.length() - 1));
+    }
+
+    @Benchmark
+    public void updateFilm() {
+        int filmId = 1 + ThreadLocalRandom.current().nextInt(films);
+        searchIndex.put(filmId, vocabulary[filmId % words], vocabulary[(filmId + 1) % words]);
+    }
+
+    private List<Integer> search(String query) {
+        return searchIndex.search(query, 10, filmId -> likes[filmId]);
+    }
+
+    private String text(Random random, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            double skewed = random.nextDouble();
+            text.append(vocabulary[(int) (skewed * skewed * skewed * words)]).append(' ');
+        }
+        return text.toString();
+    }
+}
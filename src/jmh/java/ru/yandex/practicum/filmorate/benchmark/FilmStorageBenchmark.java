@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.dao.Impl.FilmDbStorage;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
+import ru.yandex.practicum.filmorate.service.DirectLikeWriter;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilmStorageBenchmark {
+    @Param("1000")
+    private int films;
+    @Param("1000")
+    private int users;
+    @Param("20")
+    private int likesPerFilm;
+
+    private FilmDbStorage filmStorage;
+    private FilmService filmService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDataset dataset = new BenchmarkDataset();
+        dataset.addUsers(users);
+        dataset.addFilms(films, 2);
+        dataset.addLikes(films, users, likesPerFilm);
+        filmStorage = dataset.filmStorage();
+        filmService = new FilmService(filmStorage, dataset.userStorage(), new DirectLikeWriter(filmStorage));
+    }
+
+    @Benchmark
+    public List<Film> findAll() {
+        return filmStorage.findAll();
+    }
+
+    @Benchmark
+    public List<FilmSummary> findAllSummaries() {
+        return filmStorage.findAllSummaries();
+    }
+
+    @Benchmark
+    public Film findById() {
+        return filmStorage.findById(1 + ThreadLocalRandom.current().nextInt(films));
+    }
+
+    @Benchmark
+    public List<Film> findTopLiked() {
+        return filmService.findTopLiked(10, null, null, null);
+    }
+
+    @Benchmark
+    public List<Integer> findPopularIdsByYear() {
+        return filmStorage.findPopularIds(10, null, null, 1950 + ThreadLocalRandom.current().nextInt(70));
+    }
+
+    @Benchmark
+    public List<Integer> findPopularIdsByMpaAndYear() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return filmStorage.findPopularIds(10, null, 1 + random.nextInt(5), 1950 + random.nextInt(70));
+    }
+
+    @Benchmark
+    public List<Integer> findSimilarIds() {
+        return filmStorage.findSimilarIds(1 + ThreadLocalRandom.current().nextInt(films), 10);
+    }
+
+    @Benchmark
+    public List<Integer> findRecommendedIds() {
+        return filmStorage.findRecommendedIds(1 + ThreadLocalRandom.current().nextInt(users), 10);
+    }
+
+    @Benchmark
+    public void loadCoLikeIndex() {
+        filmStorage.loadCoLikeIndex();
+    }
+}
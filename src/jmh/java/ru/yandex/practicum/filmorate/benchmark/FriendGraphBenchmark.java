@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.storage.FriendGraph;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FriendGraphBenchmark {
+    @Param({"100", "1000", "3000"})
+    private int friends;
+    @Param({"50", "1000"})
+    private int friendsOfFriend;
+    @Param("100000")
+    private int users;
+
+    private FriendGraph friendGraph;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        long[] edges = new long[friends + friends * friendsOfFriend];
+        int size = 0;
+        for (int friendId = 2; friendId < friends + 2; friendId++) {
+            edges[size++] = FriendGraph.edge(1, friendId);
+            for (int i = 0; i < friendsOfFriend; i++) {
+                edges[size++] = FriendGraph.edge(friendId, 2 + random.nextInt(users - 1));
+            }
+        }
+        friendGraph = new FriendGraph();
+        friendGraph.rebuild(edges);
+    }
+
+    @Benchmark
+    public List<Integer> findSuggestions() {
+        return friendGraph.findSuggestions(1, 10);
+    }
+
+    @Benchmark
+    public void addAndRemoveFriend() {
+        friendGraph.add(1, users + 1);
+        friendGraph.remove(1, users + 1);
+    }
+}
@@ -0,0 +1,92 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InMemoryStorageBenchmark {
+    @Param("10000")
+    private int films;
+    @Param("10000")
+    private int users;
+    @Param("20")
+    private int likesPerFilm;
+
+    private final AtomicInteger threadUserIds = new AtomicInteger();
+    private InMemoryFilmStorage filmStorage;
+    private InMemoryUserStorage userStorage;
+
+    @State(Scope.Thread)
+    public static class ThreadUser {
+        private int userId;
+
+        @Setup(Level.Trial)
+        public void setUp(InMemoryStorageBenchmark benchmark) {
+            userId = benchmark.users + benchmark.threadUserIds.incrementAndGet();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        userStorage = new InMemoryUserStorage();
+        filmStorage = new InMemoryFilmStorage(userStorage);
+        for (int i = 1; i <= users; i++) {
+            userStorage.create(new User(0, "user" + i + "@mail.ru", "user" + i, "User " + i,
+                    LocalDate.of(1990, 1, 1), null));
+        }
+        for (int i = 1; i <= films; i++) {
+            filmStorage.create(new Film(0, "Film " + i, "Description of film " + i, LocalDate.of(2000, 1, 1),
+                    120, new Mpa(1, "G"), null, null));
+            int likes = random.nextInt(likesPerFilm * 2 + 1);
+            for (int j = 0; j < likes; j++) {
+                filmStorage.addLike(1 + random.nextInt(users), i);
+            }
+        }
+        for (int i = 1; i <= users; i++) {
+            for (int j = 0; j < 10; j++) {
+                userStorage.addFriend(i, 1 + random.nextInt(users));
+            }
+        }
+    }
+
+    @Benchmark
+    public Film findById() {
+        return filmStorage.findById(1 + ThreadLocalRandom.current().nextInt(films));
+    }
+
+    @Benchmark
+    public List<Film> findPopular() {
+        return filmStorage.findPopular(10);
+    }
+
+    @Benchmark
+    public List<User> findMutualFriends() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return userStorage.findMutualFriends(1 + random.nextInt(users), 1 + random.nextInt(users));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void likeAndUnlike(ThreadUser threadUser) {
+        int filmId = 1 + ThreadLocalRandom.current().nextInt(films);
+        filmStorage.addLike(threadUser.userId, filmId);
+        filmStorage.removeLike(threadUser.userId, filmId);
+    }
+}
@@ -0,0 +1,43 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.dao.Impl.FilmDbStorage;
+import ru.yandex.practicum.filmorate.dao.Impl.UserDbStorage;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertBenchmark {
+    private FilmDbStorage filmStorage;
+    private UserDbStorage userStorage;
+    private int userCounter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDataset dataset = new BenchmarkDataset();
+        filmStorage = dataset.filmStorage();
+        userStorage = dataset.userStorage();
+    }
+
+    @Benchmark
+    public Film createFilm() {
+        return filmStorage.create(new Film(0, "Film", "Description", LocalDate.of(2000, 1, 1), 120,
+                new Mpa(1, null), null, null));
+    }
+
+    @Benchmark
+    public User createUser() {
+        int n = ++userCounter;
+        return userStorage.create(new User(0, "user" + n + "@mail.ru", "user" + n, "User",
+                LocalDate.of(1990, 1, 1), null));
+    }
+}
@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+    private static final int MUTUAL_FRIENDS = 10;
+
+    @Param({"10", "100", "1000"})
+    private int friends;
+
+    private UserService userService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDataset dataset = new BenchmarkDataset();
+        dataset.addUsers(2 * friends + 2);
+        dataset.addFriends(1, IntStream.rangeClosed(3, friends + 2).boxed().collect(Collectors.toList()));
+        dataset.addFriends(2, IntStream.rangeClosed(3 + friends - MUTUAL_FRIENDS, 2 * friends + 2).boxed()
+                .collect(Collectors.toList()));
+        userService = new UserService(dataset.userStorage());
+    }
+
+    @Benchmark
+    public List<User> findMutualFriends() {
+        return userService.findMutualFriends(1, 2);
+    }
+
+    @Benchmark
+    public List<User> findUserFriends() {
+        return userService.findUserFriends(1);
+    }
+}
@@ -1,8 +1,13 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
 import javax.validation.Valid;
@@ -12,9 +17,11 @@ import java.util.List;
 @RequestMapping("/films")
 public class FilmController {
     private final FilmService service;
+    private final ObjectMapper objectMapper;
 
-    public FilmController(FilmService service) {
+    public FilmController(FilmService service, ObjectMapper objectMapper) {
         this.service = service;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
@@ -22,17 +29,78 @@ public class FilmController {
         return service.findAll();
     }
 
+    @GetMapping(params = "size")
+    public List<Film> findPage(@RequestParam(defaultValue = "0") Integer afterId, @RequestParam Integer size) {
+        checkPageSize(size);
+        return service.findPage(afterId, size);
+    }
+
+    @GetMapping(params = "view=summary")
+    public List<FilmSummary> findAllSummaries() {
+        return service.findAllSummaries();
+    }
+
+    @GetMapping(params = {"size", "view=summary"})
+    public List<FilmSummary> findSummaryPage(@RequestParam(defaultValue = "0") Integer afterId,
+                                             @RequestParam Integer size) {
+        checkPageSize(size);
+        return service.findSummaryPage(afterId, size);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public StreamingResponseBody streamAll(@RequestParam(defaultValue = "500") Integer pageSize) {
+        checkPageSize(pageSize);
+        return PageStreamer.stream(objectMapper, pageSize, service::findPage, Film::getId);
+    }
+
     @GetMapping("/{id}")
-    public Film findById(@PathVariable Integer id) {
+    public Film findById(@PathVariable Integer id, WebRequest request) {
+        String versionTag = service.getVersionTag(id);
+        if (versionTag != null && request.checkNotModified(versionTag)) {
+            return null;
+        }
         return service.findById(id);
     }
 
     @GetMapping("/popular")
-    public List<Film> findTopLiked(@RequestParam(defaultValue = "10") Integer count) {
-        if (count <= 0) {
-            throw new ValidationException("Значение параметра count должно быть больше нуля");
+    public List<Film> findTopLiked(@RequestParam(defaultValue = "10") Integer count,
+                                   @RequestParam(required = false) Integer genreId,
+                                   @RequestParam(required = false) Integer mpaId,
+                                   @RequestParam(required = false) Integer year,
+                                   WebRequest request) {
+        checkCount(count);
+        if (request.checkNotModified(service.getPopularVersionTag())) {
+            return null;
+        }
+        return service.findTopLiked(count, genreId, mpaId, year);
+    }
+
+    @GetMapping(value = "/popular", params = "view=summary")
+    public List<FilmSummary> findTopLikedSummaries(@RequestParam(defaultValue = "10") Integer count,
+                                                   @RequestParam(required = false) Integer genreId,
+                                                   @RequestParam(required = false) Integer mpaId,
+                                                   @RequestParam(required = false) Integer year,
+                                                   WebRequest request) {
+        checkCount(count);
+        if (request.checkNotModified(service.getPopularVersionTag())) {
+            return null;
         }
-        return service.findTopLiked(count);
+        return service.findTopLikedSummaries(count, genreId, mpaId, year);
+    }
+
+    @GetMapping("/search")
+    public List<Film> search(@RequestParam String query, @RequestParam(defaultValue = "10") Integer count) {
+        if (query.isBlank()) {
+            throw new ValidationException("Поисковый запрос не может быть пустым");
+        }
+        checkCount(count);
+        return service.search(query, count);
+    }
+
+    @GetMapping("/{id}/similar")
+    public List<Film> findSimilar(@PathVariable Integer id, @RequestParam(defaultValue = "10") Integer count) {
+        checkCount(count);
+        return service.findSimilar(id, count);
     }
 
     @PostMapping
@@ -54,4 +122,16 @@ public class FilmController {
     public void removeLike(@PathVariable Integer id, @PathVariable Integer userId) {
         service.removeLike(id, userId);
     }
+
+    private void checkCount(int count) {
+        if (count <= 0) {
+            throw new ValidationException("Значение параметра count должно быть больше нуля");
+        }
+    }
+
+    private void checkPageSize(int size) {
+        if (size <= 0) {
+            throw new ValidationException("Размер страницы должен быть больше нуля");
+        }
+    }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.service.GenreService;
 
@@ -19,12 +20,19 @@ public class GenreController {
     }
 
     @GetMapping
-    public List<Genre> findAll() {
+    public List<Genre> findAll(WebRequest request) {
+        if (request.checkNotModified(service.getVersionTag())) {
+            return null;
+        }
         return service.findAll();
     }
 
     @GetMapping("/{id}")
-    public Genre findById(@PathVariable Integer id) {
-        return service.findById(id);
+    public Genre findById(@PathVariable Integer id, WebRequest request) {
+        Genre genre = service.findById(id);
+        if (request.checkNotModified(service.getVersionTag())) {
+            return null;
+        }
+        return genre;
     }
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.web.bind.annotation.*;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.ImportResult;
+import ru.yandex.practicum.filmorate.service.ImportService;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/import")
+public class ImportController {
+    private final ImportService service;
+
+    public ImportController(ImportService service) {
+        this.service = service;
+    }
+
+    @PostMapping("/films")
+    public ImportResult importFilms(InputStream body, @RequestParam(defaultValue = "5000") Integer batchSize) {
+        checkBatchSize(batchSize);
+        return service.importFilms(body, batchSize);
+    }
+
+    @PostMapping("/users")
+    public ImportResult importUsers(InputStream body, @RequestParam(defaultValue = "5000") Integer batchSize) {
+        checkBatchSize(batchSize);
+        return service.importUsers(body, batchSize);
+    }
+
+    @PostMapping("/likes")
+    public ImportResult importLikes(InputStream body, @RequestParam(defaultValue = "5000") Integer batchSize) {
+        checkBatchSize(batchSize);
+        return service.importLikes(body, batchSize);
+    }
+
+    @PostMapping("/friends")
+    public ImportResult importFriendships(InputStream body, @RequestParam(defaultValue = "5000") Integer batchSize) {
+        checkBatchSize(batchSize);
+        return service.importFriendships(body, batchSize);
+    }
+
+    private void checkBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new ValidationException("Размер пакета должен быть больше нуля");
+        }
+    }
+}
@@ -4,6 +4,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import ru.yandex.practicum.filmorate.model.Mpa;
 import ru.yandex.practicum.filmorate.service.MpaService;
 
@@ -19,12 +20,19 @@ public class MpaController {
     }
 
     @GetMapping
-    public List<Mpa> findAll() {
+    public List<Mpa> findAll(WebRequest request) {
+        if (request.checkNotModified(service.getVersionTag())) {
+            return null;
+        }
         return service.findAll();
     }
 
     @GetMapping("/{id}")
-    public Mpa findById(@PathVariable Integer id) {
-        return service.findById(id);
+    public Mpa findById(@PathVariable Integer id, WebRequest request) {
+        Mpa mpa = service.findById(id);
+        if (request.checkNotModified(service.getVersionTag())) {
+            return null;
+        }
+        return mpa;
     }
 }
\ No newline at end of file
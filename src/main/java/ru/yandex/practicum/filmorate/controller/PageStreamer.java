@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+
+class PageStreamer {
+    private PageStreamer() {
+    }
+
+    static <T> StreamingResponseBody stream(ObjectMapper objectMapper, int pageSize,
+                                            BiFunction<Integer, Integer, List<T>> pageLoader,
+                                            ToIntFunction<T> idExtractor) {
+        return outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                List<T> page = pageLoader.apply(0, pageSize);
+                while (!page.isEmpty()) {
+                    for (T item : page) {
+                        generator.writeObject(item);
+                    }
+                    generator.flush();
+                    page = pageLoader.apply(idExtractor.applyAsInt(page.get(page.size() - 1)), pageSize);
+                }
+                generator.writeEndArray();
+            }
+        };
+    }
+}
@@ -1,7 +1,14 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.UserService;
 
 import javax.validation.Valid;
@@ -11,9 +18,13 @@ import java.util.List;
 @RequestMapping("/users")
 public class UserController {
     private final UserService service;
+    private final FilmService filmService;
+    private final ObjectMapper objectMapper;
 
-    public UserController(UserService service) {
+    public UserController(UserService service, FilmService filmService, ObjectMapper objectMapper) {
         this.service = service;
+        this.filmService = filmService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
@@ -21,13 +32,29 @@ public class UserController {
         return service.findAll();
     }
 
+    @GetMapping(params = "size")
+    public List<User> findPage(@RequestParam(defaultValue = "0") Integer afterId, @RequestParam Integer size) {
+        checkPageSize(size);
+        return service.findPage(afterId, size);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public StreamingResponseBody streamAll(@RequestParam(defaultValue = "500") Integer pageSize) {
+        checkPageSize(pageSize);
+        return PageStreamer.stream(objectMapper, pageSize, service::findPage, User::getId);
+    }
+
     @GetMapping("/{id}/friends")
     public List<User> findUserFriends(@PathVariable Integer id) {
         return service.findUserFriends(id);
     }
 
     @GetMapping("/{id}")
-    public User findById(@PathVariable Integer id) {
+    public User findById(@PathVariable Integer id, WebRequest request) {
+        String versionTag = service.getVersionTag(id);
+        if (versionTag != null && request.checkNotModified(versionTag)) {
+            return null;
+        }
         return service.findById(id);
     }
 
@@ -36,6 +63,19 @@ public class UserController {
         return service.findMutualFriends(id, otherId);
     }
 
+    @GetMapping("/{id}/recommendations")
+    public List<Film> findRecommendations(@PathVariable Integer id,
+                                          @RequestParam(defaultValue = "10") Integer count) {
+        checkCount(count);
+        return filmService.findRecommendations(id, count);
+    }
+
+    @GetMapping("/{id}/suggestions")
+    public List<User> findSuggestions(@PathVariable Integer id, @RequestParam(defaultValue = "10") Integer count) {
+        checkCount(count);
+        return service.findSuggestions(id, count);
+    }
+
     @PostMapping
     public User createUser(@Valid @RequestBody User user) {
         return service.createUser(user);
@@ -55,4 +95,16 @@ public class UserController {
     public void removeFriend(@PathVariable Integer id, @PathVariable Integer friendId) {
         service.removeFriend(id, friendId);
     }
+
+    private void checkCount(int count) {
+        if (count <= 0) {
+            throw new ValidationException("Значение параметра count должно быть больше нуля");
+        }
+    }
+
+    private void checkPageSize(int size) {
+        if (size <= 0) {
+            throw new ValidationException("Размер страницы должен быть больше нуля");
+        }
+    }
 }
\ No newline at end of file
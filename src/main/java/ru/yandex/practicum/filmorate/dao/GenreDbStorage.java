@@ -3,6 +3,7 @@ package ru.yandex.practicum.filmorate.dao;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface GenreDbStorage {
@@ -12,7 +13,11 @@ public interface GenreDbStorage {
 
     List<Genre> findByFilmId(int filmId);
 
-    void addGenreToTheFilm(int filmId, int genreId);
+    void addGenresToTheFilm(int filmId, Collection<Genre> genres);
 
     void updateFilmGenre(Film film);
+
+    void refresh();
+
+    String getVersionTag();
 }
\ No newline at end of file
@@ -0,0 +1,190 @@
+package ru.yandex.practicum.filmorate.dao.Impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.SortedIntSet;
+import ru.yandex.practicum.filmorate.storage.EntityVersions;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.time.Duration;
+import java.util.*;
+
+@Component
+@Primary
+@Profile("!in-memory")
+@ConditionalOnProperty(value = "filmorate.cache.films.enabled", matchIfMissing = true)
+public class CachingFilmStorage implements FilmStorage {
+    private final FilmDbStorage filmDbStorage;
+    private final Cache<Integer, Film> cache;
+    private final EntityVersions versions;
+
+    public CachingFilmStorage(FilmDbStorage filmDbStorage, MeterRegistry meterRegistry,
+                              @Value("${filmorate.cache.films.maximum-size:10000}") long maximumSize,
+                              @Value("${filmorate.cache.films.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.filmDbStorage = filmDbStorage;
+        versions = filmDbStorage.getVersions();
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "films");
+        filmDbStorage.setFilmChangeHandler(this::invalidate);
+    }
+
+    @Override
+    public List<Film> findAll() {
+        return filmDbStorage.findAll();
+    }
+
+    @Override
+    public List<Film> findPage(int afterId, int size) {
+        return filmDbStorage.findPage(afterId, size);
+    }
+
+    @Override
+    public List<FilmSummary> findAllSummaries() {
+        return filmDbStorage.findAllSummaries();
+    }
+
+    @Override
+    public List<FilmSummary> findSummaryPage(int afterId, int size) {
+        return filmDbStorage.findSummaryPage(afterId, size);
+    }
+
+    @Override
+    public Film create(Film film) {
+        return filmDbStorage.create(film);
+    }
+
+    @Override
+    public List<Film> createAll(List<Film> films) {
+        return filmDbStorage.createAll(films);
+    }
+
+    @Override
+    public Film update(Film film) {
+        return filmDbStorage.update(film);
+    }
+
+    @Override
+    public Film findById(int id) {
+        return copyOf(cache.get(id, filmDbStorage::findById));
+    }
+
+    @Override
+    public boolean existsById(int id) {
+        return filmDbStorage.existsById(id);
+    }
+
+    @Override
+    public void addLike(int userId, int filmId) {
+        filmDbStorage.addLike(userId, filmId);
+    }
+
+    @Override
+    public void removeLike(int userId, int filmId) {
+        filmDbStorage.removeLike(userId, filmId);
+    }
+
+    @Override
+    public void addLikes(Collection<Like> likes) {
+        filmDbStorage.addLikes(likes);
+    }
+
+    @Override
+    public void removeLikes(Collection<Like> likes) {
+        filmDbStorage.removeLikes(likes);
+    }
+
+    @Override
+    public List<Film> findPopular(int count) {
+        return findCached(filmDbStorage.findPopularIds(count));
+    }
+
+    @Override
+    public List<Film> findPopular(int count, Integer genreId, Integer mpaId, Integer year) {
+        return findCached(filmDbStorage.findPopularIds(count, genreId, mpaId, year));
+    }
+
+    @Override
+    public List<FilmSummary> findPopularSummaries(int count, Integer genreId, Integer mpaId, Integer year) {
+        return filmDbStorage.findSummariesByIds(filmDbStorage.findPopularIds(count, genreId, mpaId, year));
+    }
+
+    @Override
+    public List<Film> findSimilar(int filmId, int count) {
+        return findCached(filmDbStorage.findSimilarIds(filmId, count));
+    }
+
+    @Override
+    public List<Film> findRecommendations(int userId, int count) {
+        return findCached(filmDbStorage.findRecommendedIds(userId, count));
+    }
+
+    @Override
+    public List<Film> search(String query, int count) {
+        return findCached(filmDbStorage.searchIds(query, count));
+    }
+
+    @Override
+    public String getVersionTag(int id) {
+        return filmDbStorage.getVersionTag(id);
+    }
+
+    @Override
+    public String getCatalogVersionTag() {
+        return filmDbStorage.getCatalogVersionTag();
+    }
+
+    private List<Film> findCached(List<Integer> ids) {
+        Map<Integer, Film> films = new HashMap<>(cache.getAllPresent(ids));
+        List<Integer> missingIds = new ArrayList<>();
+        Map<Integer, String> missingVersions = new HashMap<>();
+        for (int id : ids) {
+            if (!films.containsKey(id) && missingVersions.putIfAbsent(id, versions.tag(id)) == null) {
+                missingIds.add(id);
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            for (Film film : filmDbStorage.findByIds(missingIds)) {
+                films.put(film.getId(), film);
+                String version = missingVersions.get(film.getId());
+                cache.asMap().compute(film.getId(), (id, cached) ->
+                        cached != null || !version.equals(versions.tag(id)) ? cached : film);
+            }
+        }
+
+        List<Film> filmList = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            Film film = films.get(id);
+            if (film != null) {
+                filmList.add(copyOf(film));
+            }
+        }
+        return filmList;
+    }
+
+    private void invalidate(int filmId) {
+        cache.asMap().compute(filmId, (id, cached) -> {
+            versions.bump(id);
+            return null;
+        });
+    }
+
+    private Film copyOf(Film film) {
+        return new Film(film.getId(), film.getName(), film.getDescription(), film.getReleaseDate(),
+                film.getDuration(), film.getMpa(), new SortedIntSet(film.getLikes()),
+                film.getGenres() == null ? null : new TreeSet<>(film.getGenres()));
+    }
+}
@@ -1,11 +1,23 @@
 package ru.yandex.practicum.filmorate.dao.Impl;
 
-import org.springframework.context.annotation.Primary;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.yandex.practicum.filmorate.dao.GenreDbStorage;
 import ru.yandex.practicum.filmorate.dao.MpaDbStorage;
 import ru.yandex.practicum.filmorate.exception.AlreadyExistException;
@@ -13,73 +25,225 @@ import ru.yandex.practicum.filmorate.exception.DoesNotExistException;
 import ru.yandex.practicum.filmorate.exception.UnexpectedException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
 import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.SortedIntSet;
+import ru.yandex.practicum.filmorate.storage.EntityVersions;
+import ru.yandex.practicum.filmorate.storage.FilmCoLikeIndex;
+import ru.yandex.practicum.filmorate.storage.FilmPopularityIndex;
+import ru.yandex.practicum.filmorate.storage.FilmSearchIndex;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
 
+import javax.annotation.PostConstruct;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.IntConsumer;
 
 @Component
-@Primary
+@Timed("filmorate.storage")
+@Profile("!in-memory")
 public class FilmDbStorage implements FilmStorage {
+    private static final String FILM_SELECT =
+            "SELECT f.film_id, f.name, f.description, f.release_date, f.duration, f.mpa_id FROM films f";
+    private static final String SUMMARY_SELECT = "SELECT f.film_id, f.name, f.description, f.release_date," +
+            " f.duration, f.mpa_id, f.likes_count FROM films f";
+    private static final String GENRE_SELECT = "SELECT fg.film_id, fg.genre_id FROM film_genres fg";
+    private static final String LIKE_SELECT = "SELECT film_id, user_id FROM likes";
+
     private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
     private final MpaDbStorage mpaDbStorage;
     private final GenreDbStorage genreDbStorage;
+    private final FilmPopularityIndex popularityIndex = new FilmPopularityIndex();
+    private final FilmCoLikeIndex coLikeIndex = new FilmCoLikeIndex();
+    private final FilmSearchIndex searchIndex = new FilmSearchIndex();
+    private final EntityVersions versions = new EntityVersions();
+    private volatile IntConsumer filmChangeHandler = versions::bump;
+    private final SimpleJdbcInsert filmInsert;
+    private final RowMapper<Film> filmRowMapper = this::mapFilm;
+    private final RowMapper<FilmSummary> summaryRowMapper = this::mapSummary;
 
-    public FilmDbStorage(JdbcTemplate jdbcTemplate) {
+    public FilmDbStorage(JdbcTemplate jdbcTemplate, MpaDbStorage mpaDbStorage, GenreDbStorage genreDbStorage) {
         this.jdbcTemplate = jdbcTemplate;
-        mpaDbStorage = new MpaDbStorageImpl(jdbcTemplate);
-        genreDbStorage = new GenreDbStorageImpl(jdbcTemplate);
+        namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.mpaDbStorage = mpaDbStorage;
+        this.genreDbStorage = genreDbStorage;
+        filmInsert = new SimpleJdbcInsert(jdbcTemplate);
+        filmInsert.withTableName("films")
+                .usingColumns("name", "description", "mpa_id", "release_date", "duration")
+                .usingGeneratedKeyColumns("film_id")
+                .withoutTableColumnMetaDataAccess();
+        filmInsert.compile();
+    }
+
+    @PostConstruct
+    public void loadPopularityIndex() {
+        Map<Integer, List<Integer>> genresByFilm = new HashMap<>();
+        jdbcTemplate.query(GENRE_SELECT, (RowCallbackHandler) rs ->
+                genresByFilm.computeIfAbsent(rs.getInt(1), id -> new ArrayList<>()).add(rs.getInt(2)));
+
+        String sql = "SELECT film_id, likes_count, mpa_id, release_date FROM films";
+        popularityIndex.clear();
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+            int filmId = rs.getInt(1);
+            LocalDate releaseDate = rs.getObject(4, LocalDate.class);
+            popularityIndex.setFacets(filmId, rs.getInt(3), releaseDate == null ? 0 : releaseDate.getYear(),
+                    genresByFilm.get(filmId));
+            popularityIndex.put(filmId, rs.getInt(2));
+        });
+    }
+
+    @PostConstruct
+    public void loadCoLikeIndex() {
+        long[] likes = jdbcTemplate.query(LIKE_SELECT, (ResultSetExtractor<long[]>) rs -> {
+            long[] pairs = new long[1024];
+            int size = 0;
+            while (rs.next()) {
+                if (size == pairs.length) {
+                    pairs = Arrays.copyOf(pairs, size * 2);
+                }
+                pairs[size++] = FilmCoLikeIndex.pair(rs.getInt(1), rs.getInt(2));
+            }
+            return Arrays.copyOf(pairs, size);
+        });
+        coLikeIndex.rebuild(likes == null ? new long[0] : likes);
+    }
+
+    @PostConstruct
+    public void loadSearchIndex() {
+        searchIndex.clear();
+        jdbcTemplate.query("SELECT film_id, name, description FROM films", (RowCallbackHandler) rs ->
+                searchIndex.put(rs.getInt(1), rs.getString(2), rs.getString(3)));
     }
 
     @Override
     public List<Film> findAll() {
-        String sql = "SELECT * FROM films";
-        List<Film> filmList = jdbcTemplate.query(sql, filmRowMapper());
-        for (Film film : filmList) {
-            film.getGenres().addAll(genreDbStorage.findByFilmId(film.getId()));
-            film.getLikes().addAll(getFilmLikes(film.getId()));
-        }
+        String sql = FILM_SELECT + " ORDER BY f.film_id";
+        List<Film> filmList = jdbcTemplate.query(sql, filmRowMapper);
+        Map<Integer, Film> films = mapById(filmList);
+
+        jdbcTemplate.query(GENRE_SELECT, genreAppender(films));
+        jdbcTemplate.query(LIKE_SELECT, likeAppender(films));
         return filmList;
     }
 
     @Override
+    public List<FilmSummary> findAllSummaries() {
+        String sql = SUMMARY_SELECT + " ORDER BY f.film_id";
+        List<FilmSummary> summaries = jdbcTemplate.query(sql, summaryRowMapper);
+        jdbcTemplate.query(GENRE_SELECT, summaryGenreAppender(mapSummariesById(summaries)));
+        return summaries;
+    }
+
+    @Override
+    public List<FilmSummary> findSummaryPage(int afterId, int size) {
+        String sql = SUMMARY_SELECT + " WHERE f.film_id > ? ORDER BY f.film_id LIMIT ?";
+        List<FilmSummary> summaries = jdbcTemplate.query(sql, summaryRowMapper, afterId, size);
+        addSummaryGenres(mapSummariesById(summaries));
+        return summaries;
+    }
+
+    @Override
+    @Transactional
     public Film create(Film film) {
         validateReleaseDate(film);
         if (film.getId() != 0) {
             throw new AlreadyExistException("Фильм уже был создан в базе");
         }
 
-        SimpleJdbcInsert simpleJdbcInsert = new SimpleJdbcInsert(jdbcTemplate)
-                .withTableName("films")
-                .usingGeneratedKeyColumns("film_id");
-        int id = simpleJdbcInsert.executeAndReturnKey(filmToRow(film)).intValue();
+        int id = filmInsert.executeAndReturnKey(filmToRow(film)).intValue();
         film.setId(id);
 
-        if (film.getGenres() == null || film.getGenres().isEmpty()) {
-            return film;
+        if (film.getGenres() != null && !film.getGenres().isEmpty()) {
+            film.setGenres(new TreeSet<>(film.getGenres()));
+            genreDbStorage.addGenresToTheFilm(id, film.getGenres());
         }
+        afterCommit(() -> {
+            popularityIndex.setFacets(film);
+            popularityIndex.put(id, 0);
+            searchIndex.put(id, film.getName(), film.getDescription());
+            versions.bump();
+        });
+        return film;
+    }
 
-        List<Genre> filmGenre = new ArrayList<>(film.getGenres());
-
-        for (Genre genre : filmGenre) {
-            genreDbStorage.addGenreToTheFilm(id, genre.getId());
+    @Override
+    @Transactional
+    public List<Film> createAll(List<Film> films) {
+        if (films.isEmpty()) {
+            return films;
         }
-        return film;
+        for (Film film : films) {
+            validateReleaseDate(film);
+            if (film.getMpa() == null) {
+                throw new ValidationException("У фильма должен быть указан рейтинг MPA");
+            }
+        }
+        String sql = "INSERT INTO films (name, description, mpa_id, release_date, duration) VALUES (?, ?, ?, ?, ?)";
+        List<Object[]> genreRows = new ArrayList<>();
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                try (PreparedStatement ps = connection.prepareStatement(sql, new String[]{"film_id"})) {
+                    for (Film film : films) {
+                        ps.setString(1, film.getName());
+                        ps.setString(2, film.getDescription());
+                        ps.setInt(3, film.getMpa().getId());
+                        ps.setObject(4, film.getReleaseDate());
+                        ps.setLong(5, film.getDuration());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        for (Film film : films) {
+                            keys.next();
+                            film.setId(keys.getInt(1));
+                        }
+                    }
+                }
+                return null;
+            });
+            for (Film film : films) {
+                if (film.getGenres() != null) {
+                    film.setGenres(new TreeSet<>(film.getGenres()));
+                    for (Genre genre : film.getGenres()) {
+                        genreRows.add(new Object[]{film.getId(), genre.getId()});
+                    }
+                }
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)", genreRows);
+        } catch (DataIntegrityViolationException e) {
+            throw new DoesNotExistException("Указан не существующий рейтинг MPA или жанр");
+        }
+        afterCommit(() -> {
+            for (Film film : films) {
+                popularityIndex.setFacets(film);
+                popularityIndex.put(film.getId(), 0);
+                searchIndex.put(film.getId(), film.getName(), film.getDescription());
+            }
+            versions.bump();
+        });
+        return films;
     }
 
     @Override
+    @Transactional
     public Film update(Film film) {
         validateReleaseDate(film);
         if (film.getId() == 0) {
             throw new DoesNotExistException("Запрошенного фильма не существует");
         }
-        findById(film.getId());
 
         String sql = "UPDATE films SET name = ?, description = ?, mpa_id = ?, release_date = ?, duration = ?" +
                 " WHERE film_id = ?";
         int updatedRows = jdbcTemplate.update(sql, film.getName(), film.getDescription(), film.getMpa().getId(),
                 film.getReleaseDate(), film.getDuration(), film.getId());
+        if (updatedRows == 0) {
+            throw new DoesNotExistException("Фильм с id " + film.getId() + " не найден");
+        }
         if (updatedRows != 1) {
             throw new UnexpectedException("При обновлении данных пользователя произошла непредвиденная ошибка");
         }
@@ -89,27 +253,27 @@ public class FilmDbStorage implements FilmStorage {
         }
 
         genreDbStorage.updateFilmGenre(film);
+        afterCommit(() -> {
+            popularityIndex.setFacets(film);
+            searchIndex.put(film.getId(), film.getName(), film.getDescription());
+            filmChangeHandler.accept(film.getId());
+        });
         return film;
     }
 
     @Override
     public Film findById(int id) {
         try {
-            String sql = "SELECT * FROM films WHERE film_id = ?";
+            String sql = FILM_SELECT + " WHERE f.film_id = ?";
 
-            Film film = jdbcTemplate.queryForObject(sql, filmRowMapper(), id);
+            Film film = jdbcTemplate.queryForObject(sql, filmRowMapper, id);
             if (film == null) {
                 throw new UnexpectedException("Случилась непредвиденная ошибка - передан null");
             }
-            film.getGenres().addAll(genreDbStorage.findByFilmId(id));
+            Map<Integer, Film> films = Map.of(id, film);
 
-            List<Integer> likes = getFilmLikes(id);
-
-            if (likes.isEmpty()) {
-                return film;
-            }
-
-            film.setLikes(new TreeSet<>(likes));
+            jdbcTemplate.query(GENRE_SELECT + " WHERE fg.film_id = ?", genreAppender(films), id);
+            jdbcTemplate.query(LIKE_SELECT + " WHERE film_id = ?", likeAppender(films), id);
             return film;
         } catch (EmptyResultDataAccessException e) {
             throw new DoesNotExistException("Пользователь с id " + id + " не найден");
@@ -117,49 +281,341 @@ public class FilmDbStorage implements FilmStorage {
     }
 
     @Override
-    public void addLike(int userId, int filmId) {
-        String sql = "INSERT INTO likes (film_id, user_id) VALUES (?, ?)";
-        int update = jdbcTemplate.update(sql, filmId, userId);
+    public boolean existsById(int id) {
+        return popularityIndex.contains(id);
+    }
 
-        if (update == 0) {
-            throw new UnexpectedException("Произошла непредвиденная ошибка при обновлении списка лайков");
+    @Override
+    @Transactional
+    public void addLike(int userId, int filmId) {
+        String sql = "INSERT INTO likes (film_id, user_id) SELECT ?, ? " +
+                "WHERE NOT EXISTS (SELECT 1 FROM likes WHERE film_id = ? AND user_id = ?)";
+        int inserted;
+        try {
+            inserted = jdbcTemplate.update(sql, filmId, userId, filmId, userId);
+        } catch (DuplicateKeyException e) {
+            return;
+        } catch (DataIntegrityViolationException e) {
+            throw new DoesNotExistException("Введен не существующий идентификатор фильма либо пользователя");
+        }
+        if (inserted == 0) {
+            return;
         }
+        jdbcTemplate.update("UPDATE films SET likes_count = likes_count + 1 WHERE film_id = ?", filmId);
+        afterCommit(() -> {
+            popularityIndex.addLike(filmId);
+            coLikeIndex.add(filmId, userId);
+            filmChangeHandler.accept(filmId);
+        });
     }
 
     @Override
+    @Transactional
     public void removeLike(int userId, int filmId) {
         String sql = "DELETE FROM likes WHERE film_id=? AND user_id=?";
         int update = jdbcTemplate.update(sql, filmId, userId);
         if (update == 0) {
             throw new UnexpectedException("Произошла ошибка при удалении лайка");
         }
+        jdbcTemplate.update("UPDATE films SET likes_count = likes_count - 1 WHERE film_id = ?", filmId);
+        afterCommit(() -> {
+            popularityIndex.removeLike(filmId);
+            coLikeIndex.remove(filmId, userId);
+            filmChangeHandler.accept(filmId);
+        });
     }
 
-    private RowMapper<Film> filmRowMapper() {
-        return (rs, rowNum) -> new Film(rs.getInt("film_id"),
-                rs.getString("name"),
-                rs.getString("description"),
-                rs.getDate("release_date").toLocalDate(),
-                rs.getInt("duration"),
-                mpaDbStorage.findById(rs.getInt("mpa_id")),
-                new TreeSet<>(),
+    @Override
+    @Transactional
+    public void addLikes(Collection<Like> likes) {
+        if (likes.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO likes (film_id, user_id) SELECT ?, ? " +
+                "WHERE NOT EXISTS (SELECT 1 FROM likes WHERE film_id = ? AND user_id = ?)";
+        List<Like> likeList = new ArrayList<>(likes);
+        int[] updates;
+        try {
+            updates = jdbcTemplate.batchUpdate(sql, likeList, likeList.size(), (ps, like) -> {
+                ps.setInt(1, like.getFilmId());
+                ps.setInt(2, like.getUserId());
+                ps.setInt(3, like.getFilmId());
+                ps.setInt(4, like.getUserId());
+            })[0];
+        } catch (DataIntegrityViolationException e) {
+            throw new DoesNotExistException("Введен не существующий идентификатор фильма либо пользователя");
+        }
+        applyLikeCountChanges(likeList, updates, 1);
+    }
+
+    @Override
+    @Transactional
+    public void removeLikes(Collection<Like> likes) {
+        if (likes.isEmpty()) {
+            return;
+        }
+        String sql = "DELETE FROM likes WHERE film_id = ? AND user_id = ?";
+        List<Like> likeList = new ArrayList<>(likes);
+        int[] updates = jdbcTemplate.batchUpdate(sql, likeList, likeList.size(), (ps, like) -> {
+            ps.setInt(1, like.getFilmId());
+            ps.setInt(2, like.getUserId());
+        })[0];
+        applyLikeCountChanges(likeList, updates, -1);
+    }
+
+    @Override
+    public List<Film> findPopular(int count) {
+        return findByIds(findPopularIds(count));
+    }
+
+    @Override
+    public List<Film> findPopular(int count, Integer genreId, Integer mpaId, Integer year) {
+        return findByIds(findPopularIds(count, genreId, mpaId, year));
+    }
+
+    @Override
+    public List<FilmSummary> findPopularSummaries(int count, Integer genreId, Integer mpaId, Integer year) {
+        return findSummariesByIds(findPopularIds(count, genreId, mpaId, year));
+    }
+
+    @Override
+    public List<Film> findSimilar(int filmId, int count) {
+        return findByIds(findSimilarIds(filmId, count));
+    }
+
+    @Override
+    public List<Film> findRecommendations(int userId, int count) {
+        return findByIds(findRecommendedIds(userId, count));
+    }
+
+    @Override
+    public List<Film> search(String query, int count) {
+        return findByIds(searchIds(query, count));
+    }
+
+    public List<Integer> findPopularIds(int count) {
+        return popularityIndex.findTop(count);
+    }
+
+    public List<Integer> findPopularIds(int count, Integer genreId, Integer mpaId, Integer year) {
+        return popularityIndex.findTop(count, genreId, mpaId, year);
+    }
+
+    public List<Integer> findSimilarIds(int filmId, int count) {
+        return coLikeIndex.findSimilar(filmId, count);
+    }
+
+    public List<Integer> findRecommendedIds(int userId, int count) {
+        return coLikeIndex.findRecommendations(userId, count);
+    }
+
+    @Override
+    public String getVersionTag(int id) {
+        return versions.tag(id);
+    }
+
+    @Override
+    public String getCatalogVersionTag() {
+        return versions.tag();
+    }
+
+    public EntityVersions getVersions() {
+        return versions;
+    }
+
+    public void setFilmChangeHandler(IntConsumer filmChangeHandler) {
+        this.filmChangeHandler = filmChangeHandler;
+    }
+
+    public List<Integer> searchIds(String query, int count) {
+        return searchIndex.search(query, count, popularityIndex::getLikes);
+    }
+
+    @Override
+    public List<Film> findPage(int afterId, int size) {
+        String sql = FILM_SELECT + " WHERE f.film_id > ? ORDER BY f.film_id LIMIT ?";
+        List<Film> filmList = jdbcTemplate.query(sql, filmRowMapper, afterId, size);
+        addGenresAndLikes(mapById(filmList));
+        return filmList;
+    }
+
+    public List<Film> findByIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+        Map<Integer, Film> films = mapById(namedJdbcTemplate.query(FILM_SELECT + " WHERE f.film_id IN (:ids)",
+                params, filmRowMapper));
+        addGenresAndLikes(films);
+
+        List<Film> filmList = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            Film film = films.get(id);
+            if (film != null) {
+                filmList.add(film);
+            }
+        }
+        return filmList;
+    }
+
+    public List<FilmSummary> findSummariesByIds(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+        Map<Integer, FilmSummary> summaries = mapSummariesById(namedJdbcTemplate.query(
+                SUMMARY_SELECT + " WHERE f.film_id IN (:ids)", params, summaryRowMapper));
+        addSummaryGenres(summaries);
+
+        List<FilmSummary> summaryList = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            FilmSummary summary = summaries.get(id);
+            if (summary != null) {
+                summaryList.add(summary);
+            }
+        }
+        return summaryList;
+    }
+
+    private void applyLikeCountChanges(List<Like> likeList, int[] updates, int sign) {
+        Map<Integer, Integer> changes = new HashMap<>();
+        List<Like> changedLikes = new ArrayList<>();
+        for (int i = 0; i < updates.length; i++) {
+            if (updates[i] > 0) {
+                Like like = likeList.get(i);
+                changes.merge(like.getFilmId(), sign, Integer::sum);
+                changedLikes.add(like);
+            }
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Integer, Integer>> changeList = new ArrayList<>(changes.entrySet());
+        jdbcTemplate.batchUpdate("UPDATE films SET likes_count = likes_count + ? WHERE film_id = ?", changeList,
+                changeList.size(), (ps, change) -> {
+                    ps.setInt(1, change.getValue());
+                    ps.setInt(2, change.getKey());
+                });
+        afterCommit(() -> {
+            for (Like like : changedLikes) {
+                if (sign > 0) {
+                    coLikeIndex.add(like.getFilmId(), like.getUserId());
+                } else {
+                    coLikeIndex.remove(like.getFilmId(), like.getUserId());
+                }
+            }
+            for (Map.Entry<Integer, Integer> change : changeList) {
+                popularityIndex.changeLikes(change.getKey(), change.getValue());
+                filmChangeHandler.accept(change.getKey());
+            }
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void addGenresAndLikes(Map<Integer, Film> films) {
+        if (films.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", films.keySet());
+        namedJdbcTemplate.query(GENRE_SELECT + " WHERE fg.film_id IN (:ids)", params, genreAppender(films));
+        namedJdbcTemplate.query(LIKE_SELECT + " WHERE film_id IN (:ids)", params, likeAppender(films));
+    }
+
+    private Film mapFilm(ResultSet rs, int rowNum) throws SQLException {
+        return new Film(rs.getInt(1),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getObject(4, LocalDate.class),
+                rs.getInt(5),
+                mpaDbStorage.findById(rs.getInt(6)),
+                new SortedIntSet(),
                 new TreeSet<>()
         );
     }
 
-    private List<Integer> getFilmLikes(int filmId) {
-        String sql = "SELECT user_id FROM likes WHERE film_id=?";
-        return jdbcTemplate.query(sql, (resultSet, rowNum) -> resultSet.getInt("user_id"), filmId);
+    private FilmSummary mapSummary(ResultSet rs, int rowNum) throws SQLException {
+        return new FilmSummary(rs.getInt(1),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getObject(4, LocalDate.class),
+                rs.getInt(5),
+                mpaDbStorage.findById(rs.getInt(6)),
+                new TreeSet<>(),
+                rs.getInt(7)
+        );
+    }
+
+    private void addSummaryGenres(Map<Integer, FilmSummary> summaries) {
+        if (summaries.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", summaries.keySet());
+        namedJdbcTemplate.query(GENRE_SELECT + " WHERE fg.film_id IN (:ids)", params,
+                summaryGenreAppender(summaries));
+    }
+
+    private RowCallbackHandler summaryGenreAppender(Map<Integer, FilmSummary> summaries) {
+        return rs -> {
+            FilmSummary summary = summaries.get(rs.getInt(1));
+            if (summary != null) {
+                summary.getGenres().add(genreDbStorage.findById(rs.getInt(2)));
+            }
+        };
+    }
+
+    private RowCallbackHandler genreAppender(Map<Integer, Film> films) {
+        return rs -> {
+            Film film = films.get(rs.getInt(1));
+            if (film != null) {
+                film.getGenres().add(genreDbStorage.findById(rs.getInt(2)));
+            }
+        };
+    }
+
+    private RowCallbackHandler likeAppender(Map<Integer, Film> films) {
+        return rs -> {
+            Film film = films.get(rs.getInt(1));
+            if (film != null) {
+                film.getLikes().add(rs.getInt(2));
+            }
+        };
+    }
+
+    private Map<Integer, Film> mapById(List<Film> filmList) {
+        Map<Integer, Film> films = new HashMap<>();
+        for (Film film : filmList) {
+            films.put(film.getId(), film);
+        }
+        return films;
+    }
+
+    private Map<Integer, FilmSummary> mapSummariesById(List<FilmSummary> summaryList) {
+        Map<Integer, FilmSummary> summaries = new HashMap<>();
+        for (FilmSummary summary : summaryList) {
+            summaries.put(summary.getId(), summary);
+        }
+        return summaries;
     }
 
-    private Map<String, Object> filmToRow(Film film) {
-        Map<String, Object> values = new HashMap<>();
-        values.put("name", film.getName());
-        values.put("description", film.getDescription());
-        values.put("mpa_id", film.getMpa().getId());
-        values.put("release_date", film.getReleaseDate());
-        values.put("duration", film.getDuration());
-        return values;
+    private SqlParameterSource filmToRow(Film film) {
+        return new MapSqlParameterSource()
+                .addValue("name", film.getName())
+                .addValue("description", film.getDescription())
+                .addValue("mpa_id", film.getMpa().getId())
+                .addValue("release_date", film.getReleaseDate())
+                .addValue("duration", film.getDuration());
     }
 
     private void validateReleaseDate(Film film) {
@@ -1,6 +1,5 @@
 package ru.yandex.practicum.filmorate.dao.Impl;
 
-import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
@@ -9,13 +8,16 @@ import ru.yandex.practicum.filmorate.exception.DoesNotExistException;
 import ru.yandex.practicum.filmorate.exception.UnexpectedException;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.EntityVersions;
 
-import java.util.ArrayList;
-import java.util.List;
+import javax.annotation.PostConstruct;
+import java.util.*;
 
 @Component
 public class GenreDbStorageImpl implements GenreDbStorage {
     private final JdbcTemplate jdbcTemplate;
+    private final EntityVersions versions = new EntityVersions();
+    private volatile Genre[] genresById = new Genre[0];
 
     public GenreDbStorageImpl(JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
@@ -23,18 +25,22 @@ public class GenreDbStorageImpl implements GenreDbStorage {
 
     @Override
     public List<Genre> findAll() {
-        String sql = "SELECT * FROM genres ORDER BY genre_id";
-        return jdbcTemplate.query(sql, genreRowMapper());
+        List<Genre> genres = new ArrayList<>();
+        for (Genre genre : genresById) {
+            if (genre != null) {
+                genres.add(genre);
+            }
+        }
+        return genres;
     }
 
     @Override
     public Genre findById(int id) {
-        try {
-            String sql = "SELECT * FROM genres WHERE genre_id=?";
-            return jdbcTemplate.queryForObject(sql, genreRowMapper(), id);
-        } catch (EmptyResultDataAccessException e) {
+        Genre[] cached = genresById;
+        if (id < 1 || id >= cached.length || cached[id] == null) {
             throw new DoesNotExistException("Жанр с запрошенным идентификатором не найден");
         }
+        return cached[id];
     }
 
     @Override
@@ -49,38 +55,86 @@ public class GenreDbStorageImpl implements GenreDbStorage {
     }
 
     @Override
-    public void addGenreToTheFilm(int filmId, int genreId) {
-        String sql = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
-        int updatedRow = jdbcTemplate.update(sql, filmId, genreId);
-        if (updatedRow != 1) {
-            throw new UnexpectedException("Произошла ошибка при добавлении жанра");
+    public void addGenresToTheFilm(int filmId, Collection<Genre> genres) {
+        Set<Integer> genreIds = new TreeSet<>();
+        for (Genre genre : genres) {
+            genreIds.add(genre.getId());
         }
+        insertFilmGenres(filmId, genreIds);
     }
 
     @Override
     public void updateFilmGenre(Film film) {
-        String sql = "DELETE FROM film_genres WHERE film_id=?";
-        jdbcTemplate.update(sql, film.getId());
-        if (film.getGenres() == null || film.getGenres().isEmpty()) {
-            return;
+        Set<Integer> requested = new TreeSet<>();
+        if (film.getGenres() != null) {
+            for (Genre genre : film.getGenres()) {
+                requested.add(genre.getId());
+            }
         }
+        Set<Integer> current = new HashSet<>(findIdsByFilm(film.getId()));
 
-        List<Genre> filmGenre = new ArrayList<>(film.getGenres());
+        List<Object[]> removed = new ArrayList<>();
+        for (int genreId : current) {
+            if (!requested.contains(genreId)) {
+                removed.add(new Object[]{film.getId(), genreId});
+            }
+        }
+        if (!removed.isEmpty()) {
+            String sql = "DELETE FROM film_genres WHERE film_id=? AND genre_id=?";
+            jdbcTemplate.batchUpdate(sql, removed);
+        }
+
+        requested.removeAll(current);
+        insertFilmGenres(film.getId(), requested);
+    }
+
+    @Override
+    @PostConstruct
+    public void refresh() {
+        String sql = "SELECT genre_id, name FROM genres ORDER BY genre_id";
+        List<Genre> genres = jdbcTemplate.query(sql, genreRowMapper());
+        int maxId = genres.isEmpty() ? 0 : genres.get(genres.size() - 1).getId();
 
-        for (Genre genre : filmGenre) {
-            addGenreToTheFilm(film.getId(), genre.getId());
+        Genre[] loaded = new Genre[maxId + 1];
+        for (Genre genre : genres) {
+            loaded[genre.getId()] = genre;
         }
+        genresById = loaded;
+        versions.bump();
+    }
+
+    @Override
+    public String getVersionTag() {
+        return versions.tag();
     }
 
     private RowMapper<Genre> genreRowMapper() {
         return (rs, rowNum) -> new Genre(
-                rs.getInt("genre_id"),
-                rs.getString("name")
+                rs.getInt(1),
+                rs.getString(2)
         );
     }
 
+    private void insertFilmGenres(int filmId, Set<Integer> genreIds) {
+        if (genreIds.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(genreIds.size());
+        for (int genreId : genreIds) {
+            rows.add(new Object[]{filmId, genreId});
+        }
+
+        String sql = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
+        int[] updatedRows = jdbcTemplate.batchUpdate(sql, rows);
+        for (int updated : updatedRows) {
+            if (updated == 0) {
+                throw new UnexpectedException("Произошла ошибка при добавлении жанра");
+            }
+        }
+    }
+
     private List<Integer> findIdsByFilm(int filmId) {
-        String sql = "SELECT * FROM film_genres WHERE film_id=?";
-        return jdbcTemplate.query(sql, (resultSet, rowNum) -> resultSet.getInt("genre_id"), filmId);
+        String sql = "SELECT genre_id FROM film_genres WHERE film_id=?";
+        return jdbcTemplate.query(sql, (resultSet, rowNum) -> resultSet.getInt(1), filmId);
     }
 }
\ No newline at end of file
@@ -1,18 +1,22 @@
 package ru.yandex.practicum.filmorate.dao.Impl;
 
-import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.dao.MpaDbStorage;
 import ru.yandex.practicum.filmorate.exception.DoesNotExistException;
 import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.EntityVersions;
 
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
 import java.util.List;
 
 @Component
 public class MpaDbStorageImpl implements MpaDbStorage {
     private final JdbcTemplate jdbcTemplate;
+    private final EntityVersions versions = new EntityVersions();
+    private volatile Mpa[] mpaById = new Mpa[0];
 
     public MpaDbStorageImpl(JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
@@ -20,21 +24,45 @@ public class MpaDbStorageImpl implements MpaDbStorage {
 
     @Override
     public List<Mpa> findAll() {
-        String sql = "SELECT * FROM mpa ORDER BY mpa_id";
-        return jdbcTemplate.query(sql, mpaRowMapper());
+        List<Mpa> mpaList = new ArrayList<>();
+        for (Mpa mpa : mpaById) {
+            if (mpa != null) {
+                mpaList.add(mpa);
+            }
+        }
+        return mpaList;
     }
 
     @Override
     public Mpa findById(int id) {
-        try {
-            String sql = "SELECT * FROM mpa WHERE mpa_id = ?";
-            return jdbcTemplate.queryForObject(sql, mpaRowMapper(), id);
-        } catch (EmptyResultDataAccessException e) {
+        Mpa[] cached = mpaById;
+        if (id < 1 || id >= cached.length || cached[id] == null) {
             throw new DoesNotExistException("Возрастной рейтинг с идентификатором " + id + " не найден");
         }
+        return cached[id];
+    }
+
+    @Override
+    @PostConstruct
+    public void refresh() {
+        String sql = "SELECT mpa_id, name FROM mpa ORDER BY mpa_id";
+        List<Mpa> mpaList = jdbcTemplate.query(sql, mpaRowMapper());
+        int maxId = mpaList.isEmpty() ? 0 : mpaList.get(mpaList.size() - 1).getId();
+
+        Mpa[] loaded = new Mpa[maxId + 1];
+        for (Mpa mpa : mpaList) {
+            loaded[mpa.getId()] = mpa;
+        }
+        mpaById = loaded;
+        versions.bump();
+    }
+
+    @Override
+    public String getVersionTag() {
+        return versions.tag();
     }
 
     private RowMapper<Mpa> mpaRowMapper() {
-        return (rs, rowNum) -> new Mpa(rs.getInt("mpa_id"), rs.getString("name"));
+        return (rs, rowNum) -> new Mpa(rs.getInt(1), rs.getString(2));
     }
 }
\ No newline at end of file
@@ -1,35 +1,104 @@
 package ru.yandex.practicum.filmorate.dao.Impl;
 
-import org.springframework.context.annotation.Primary;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.yandex.practicum.filmorate.exception.AlreadyExistException;
 import ru.yandex.practicum.filmorate.exception.DoesNotExistException;
 import ru.yandex.practicum.filmorate.exception.UnexpectedException;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.SortedIntSet;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.EntityVersions;
+import ru.yandex.practicum.filmorate.storage.FriendGraph;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 
+import javax.annotation.PostConstruct;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.*;
 
 @Component
-@Primary
+@Timed("filmorate.storage")
+@Profile("!in-memory")
 public class UserDbStorage implements UserStorage {
+    private static final String USER_SELECT = "SELECT u.user_id, u.email, u.login, u.name, u.birthday FROM users u";
+    private static final RowMapper<User> USER_ROW_MAPPER = UserDbStorage::mapUser;
+
     private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final SimpleJdbcInsert userInsert;
+    private final FriendGraph friendGraph = new FriendGraph();
+    private final EntityVersions versions = new EntityVersions();
 
     public UserDbStorage(JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
+        namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        userInsert = new SimpleJdbcInsert(jdbcTemplate);
+        userInsert.withTableName("users")
+                .usingColumns("email", "login", "name", "birthday")
+                .usingGeneratedKeyColumns("user_id")
+                .withoutTableColumnMetaDataAccess();
+        userInsert.compile();
+    }
+
+    @PostConstruct
+    public void loadFriendGraph() {
+        long[] edges = jdbcTemplate.query("SELECT user_id, friend_id FROM friends", (ResultSetExtractor<long[]>) rs -> {
+            long[] pairs = new long[1024];
+            int size = 0;
+            while (rs.next()) {
+                if (size == pairs.length) {
+                    pairs = Arrays.copyOf(pairs, size * 2);
+                }
+                pairs[size++] = FriendGraph.edge(rs.getInt(1), rs.getInt(2));
+            }
+            return Arrays.copyOf(pairs, size);
+        });
+        friendGraph.rebuild(edges == null ? new long[0] : edges);
     }
 
     @Override
     public List<User> findAll() {
-        String sql = "SELECT * FROM users ORDER BY user_id";
-        List<User> userList = jdbcTemplate.query(sql, userRowMapper());
-        for (User user : userList) {
-            user.setFriends(new HashSet<>(findUserFriends(user.getId())));
+        String sql = USER_SELECT + " ORDER BY u.user_id";
+        List<User> userList = jdbcTemplate.query(sql, USER_ROW_MAPPER);
+        jdbcTemplate.query("SELECT user_id, friend_id FROM friends", friendAppender(mapById(userList)));
+        return userList;
+    }
+
+    @Override
+    public List<User> findByIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
         }
+        String sql = USER_SELECT + " WHERE u.user_id IN (:ids) ORDER BY u.user_id";
+        List<User> userList = namedJdbcTemplate.query(sql, new MapSqlParameterSource("ids", ids), USER_ROW_MAPPER);
+        addFriends(userList);
+        return userList;
+    }
+
+    @Override
+    public List<User> findPage(int afterId, int size) {
+        String sql = USER_SELECT + " WHERE u.user_id > ? ORDER BY u.user_id LIMIT ?";
+        List<User> userList = jdbcTemplate.query(sql, USER_ROW_MAPPER, afterId, size);
+        addFriends(userList);
         return userList;
     }
 
@@ -40,37 +109,102 @@ public class UserDbStorage implements UserStorage {
         }
         setLoginAsNameIfBlankOrNull(user);
 
-        SimpleJdbcInsert simpleJdbcInsert = new SimpleJdbcInsert(jdbcTemplate)
-                .withTableName("users")
-                .usingGeneratedKeyColumns("user_id");
-        int id = simpleJdbcInsert.executeAndReturnKey(userToRow(user)).intValue();
+        int id = userInsert.executeAndReturnKey(userToRow(user)).intValue();
         user.setId(id);
         return user;
     }
 
+    @Override
+    @Transactional
+    public List<User> createAll(List<User> users) {
+        if (users.isEmpty()) {
+            return users;
+        }
+        String sql = "INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)";
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                try (PreparedStatement ps = connection.prepareStatement(sql, new String[]{"user_id"})) {
+                    for (User user : users) {
+                        setLoginAsNameIfBlankOrNull(user);
+                        ps.setString(1, user.getEmail());
+                        ps.setString(2, user.getLogin());
+                        ps.setString(3, user.getName());
+                        ps.setObject(4, user.getBirthday());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        for (User user : users) {
+                            keys.next();
+                            user.setId(keys.getInt(1));
+                        }
+                    }
+                }
+                return null;
+            });
+        } catch (DuplicateKeyException e) {
+            throw new AlreadyExistException("Пользователь с таким email или логином уже существует");
+        }
+        return users;
+    }
+
+    @Override
+    @Transactional
+    public void addFriends(Collection<Friendship> friendships) {
+        if (friendships.isEmpty()) {
+            return;
+        }
+        String sql = "MERGE INTO friends (user_id, friend_id) KEY (user_id, friend_id) VALUES (?, ?)";
+        try {
+            jdbcTemplate.batchUpdate(sql, friendships, friendships.size(), (ps, friendship) -> {
+                ps.setInt(1, friendship.getUserId());
+                ps.setInt(2, friendship.getFriendId());
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw new DoesNotExistException("Пользователь с запрошенным идентификатором не найден");
+        }
+        afterCommit(() -> {
+            for (Friendship friendship : friendships) {
+                friendGraph.add(friendship.getUserId(), friendship.getFriendId());
+                versions.bump(friendship.getUserId());
+            }
+        });
+    }
+
     @Override
     public void addFriend(int userId, int friendId) {
-        String sql = "INSERT INTO friends (user_id, friend_id) VALUES (?, ?)";
-        int update = jdbcTemplate.update(sql, userId, friendId);
+        String sql = "MERGE INTO friends (user_id, friend_id) KEY (user_id, friend_id) VALUES (?, ?)";
+        int update;
+        try {
+            update = jdbcTemplate.update(sql, userId, friendId);
+        } catch (DataIntegrityViolationException e) {
+            throw new DoesNotExistException("Пользователь с запрошенным идентификатором не найден");
+        }
 
         if (update == 0) {
             throw new UnexpectedException("При обновлении списка друзей произошла непредвиденная ошибка");
         }
+        afterCommit(() -> {
+            friendGraph.add(userId, friendId);
+            versions.bump(userId);
+        });
+    }
+
+    @Override
+    public boolean existsById(int id) {
+        String sql = "SELECT EXISTS (SELECT 1 FROM users WHERE user_id = ?)";
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class, id));
     }
 
     @Override
     public User findById(int id) {
         try {
-            String sql = "SELECT * FROM users WHERE user_id = ?";
-            if (findUserFriends(id).isEmpty()) {
-                return jdbcTemplate.queryForObject(sql, userRowMapper(), id);
-            }
-
-            User user = jdbcTemplate.queryForObject(sql, userRowMapper(), id);
+            String sql = USER_SELECT + " WHERE u.user_id = ?";
+            User user = jdbcTemplate.queryForObject(sql, USER_ROW_MAPPER, id);
             if (user == null) {
                 throw new UnexpectedException("Произошла непредвиденная ошибка при создании пользователя");
             }
-            user.setFriends(new TreeSet<>(findUserFriends(id)));
+            user.setFriends(new SortedIntSet(findUserFriends(id)));
             return user;
         } catch (EmptyResultDataAccessException e) {
             throw new DoesNotExistException("Пользователь с id " + id + " не найден");
@@ -84,44 +218,135 @@ public class UserDbStorage implements UserStorage {
         }
         setLoginAsNameIfBlankOrNull(user);
 
-        findById(user.getId());
-
         String sql = "UPDATE users SET email = ?, login = ?, name = ?, birthday = ? WHERE user_id = ?";
         int updatedRows = jdbcTemplate.update(sql, user.getEmail(), user.getLogin(), user.getName(), user.getBirthday(),
                 user.getId());
 
+        if (updatedRows == 0) {
+            throw new DoesNotExistException("Пользователь с id " + user.getId() + " не найден");
+        }
         if (updatedRows != 1) {
             throw new UnexpectedException("При обновлении данных пользователя произошла непредвиденная ошибка");
         }
+        afterCommit(() -> versions.bump(user.getId()));
         return user;
     }
 
     @Override
-    public void removeFriend(int userId, int friendId) {
+    public boolean removeFriend(int userId, int friendId) {
         String sql = "DELETE FROM friends WHERE user_id=? AND friend_id=?";
-        jdbcTemplate.update(sql, userId, friendId);
+        if (jdbcTemplate.update(sql, userId, friendId) == 0) {
+            return false;
+        }
+        afterCommit(() -> {
+            friendGraph.remove(userId, friendId);
+            versions.bump(userId);
+        });
+        return true;
     }
 
-    private RowMapper<User> userRowMapper() {
-        return (rs, rowNum) -> new User(rs.getInt("user_id"),
-                rs.getString("email"),
-                rs.getString("login"),
-                rs.getString("name"),
-                rs.getDate("birthday").toLocalDate(),
-                new HashSet<>()
+    @Override
+    public List<User> findMutualFriends(int userId, int otherId) {
+        checkUsersExist(new HashSet<>(Arrays.asList(userId, otherId)));
+
+        String sql = USER_SELECT +
+                " JOIN friends f1 ON u.user_id = f1.friend_id" +
+                " JOIN friends f2 ON f1.friend_id = f2.friend_id" +
+                " WHERE f1.user_id = ? AND f2.user_id = ? ORDER BY u.user_id";
+        List<User> mutualFriends = jdbcTemplate.query(sql, USER_ROW_MAPPER, userId, otherId);
+        addFriends(mutualFriends);
+        return mutualFriends;
+    }
+
+    @Override
+    public List<User> findSuggestions(int userId, int count) {
+        List<Integer> ids = friendGraph.findSuggestions(userId, count);
+        Map<Integer, User> users = mapById(findByIds(ids));
+
+        List<User> suggestions = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            User user = users.get(id);
+            if (user != null) {
+                suggestions.add(user);
+            }
+        }
+        return suggestions;
+    }
+
+    @Override
+    public String getVersionTag(int id) {
+        return versions.tag(id);
+    }
+
+    private void checkUsersExist(Set<Integer> ids) {
+        String sql = "SELECT COUNT(*) FROM users WHERE user_id IN (:ids)";
+        Integer found = namedJdbcTemplate.queryForObject(sql, new MapSqlParameterSource("ids", ids), Integer.class);
+        if (found == null || found != ids.size()) {
+            throw new DoesNotExistException("Пользователь с запрошенным идентификатором не найден");
+        }
+    }
+
+    private static User mapUser(ResultSet rs, int rowNum) throws SQLException {
+        return new User(rs.getInt(1),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getObject(5, LocalDate.class),
+                new SortedIntSet()
         );
     }
 
-    private Map<String, Object> userToRow(User user) {
-        return new HashMap<>(Map.of("email", user.getEmail(),
-                "login", user.getLogin(),
-                "name", user.getName(),
-                "birthday", user.getBirthday()));
+    private void addFriends(List<User> userList) {
+        if (userList.isEmpty()) {
+            return;
+        }
+        Map<Integer, User> users = mapById(userList);
+
+        String sql = "SELECT user_id, friend_id FROM friends WHERE user_id IN (:ids)";
+        namedJdbcTemplate.query(sql, new MapSqlParameterSource("ids", users.keySet()), friendAppender(users));
+    }
+
+    private RowCallbackHandler friendAppender(Map<Integer, User> users) {
+        return rs -> {
+            User user = users.get(rs.getInt(1));
+            if (user != null) {
+                user.getFriends().add(rs.getInt(2));
+            }
+        };
+    }
+
+    private Map<Integer, User> mapById(List<User> userList) {
+        Map<Integer, User> users = new HashMap<>();
+        for (User user : userList) {
+            users.put(user.getId(), user);
+        }
+        return users;
+    }
+
+    private SqlParameterSource userToRow(User user) {
+        return new MapSqlParameterSource()
+                .addValue("email", user.getEmail())
+                .addValue("login", user.getLogin())
+                .addValue("name", user.getName())
+                .addValue("birthday", user.getBirthday());
     }
 
     private List<Integer> findUserFriends(int userId) {
         String sql = "SELECT friend_id FROM friends WHERE user_id=?";
-        return jdbcTemplate.query(sql, (resultSet, rowNum) -> resultSet.getInt("friend_id"), userId);
+        return jdbcTemplate.query(sql, (resultSet, rowNum) -> resultSet.getInt(1), userId);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
     private void setLoginAsNameIfBlankOrNull(User user) {
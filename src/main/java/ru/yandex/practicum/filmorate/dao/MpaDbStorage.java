@@ -8,4 +8,8 @@ public interface MpaDbStorage {
     List<Mpa> findAll();
 
     Mpa findById(int id);
+
+    void refresh();
+
+    String getVersionTag();
 }
\ No newline at end of file
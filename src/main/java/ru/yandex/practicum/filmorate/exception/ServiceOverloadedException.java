@@ -0,0 +1,7 @@
+package ru.yandex.practicum.filmorate.exception;
+
+public class ServiceOverloadedException extends RuntimeException {
+    public ServiceOverloadedException(String m) {
+        super(m);
+    }
+}
@@ -0,0 +1,70 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import org.springframework.jdbc.core.*;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class CountingJdbcTemplate extends JdbcTemplate {
+
+    public CountingJdbcTemplate(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    protected void applyStatementSettings(Statement statement) throws SQLException {
+        SqlStatistics.current().recordQuery();
+        super.applyStatementSettings(statement);
+    }
+
+    @Override
+    public <T> T query(String sql, ResultSetExtractor<T> rse) {
+        return countRows(rse, super.query(sql, rse));
+    }
+
+    @Override
+    public <T> T query(PreparedStatementCreator psc, PreparedStatementSetter pss, ResultSetExtractor<T> rse) {
+        return countRows(rse, super.query(psc, pss, rse));
+    }
+
+    @Override
+    public void query(String sql, RowCallbackHandler rch) {
+        super.query(sql, countingHandler(rch));
+    }
+
+    @Override
+    public void query(PreparedStatementCreator psc, RowCallbackHandler rch) {
+        super.query(psc, countingHandler(rch));
+    }
+
+    @Override
+    public void query(String sql, PreparedStatementSetter pss, RowCallbackHandler rch) {
+        super.query(sql, pss, countingHandler(rch));
+    }
+
+    @Override
+    public <T> Stream<T> queryForStream(PreparedStatementCreator psc, PreparedStatementSetter pss,
+                                        RowMapper<T> rowMapper) {
+        return super.queryForStream(psc, pss, (rs, rowNum) -> {
+            SqlStatistics.current().recordRow();
+            return rowMapper.mapRow(rs, rowNum);
+        });
+    }
+
+    private <T> T countRows(ResultSetExtractor<T> rse, T result) {
+        if (rse instanceof RowMapperResultSetExtractor && result instanceof List) {
+            SqlStatistics.current().recordRows(((List<?>) result).size());
+        }
+        return result;
+    }
+
+    private RowCallbackHandler countingHandler(RowCallbackHandler rch) {
+        return rs -> {
+            SqlStatistics.current().recordRow();
+            rch.processRow(rs);
+        };
+    }
+}
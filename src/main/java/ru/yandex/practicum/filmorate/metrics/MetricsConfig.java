@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.JdbcProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+    private final MeterRegistry meterRegistry;
+    private final boolean sqlMetricsEnabled;
+    private final boolean debugHeaders;
+
+    public MetricsConfig(MeterRegistry meterRegistry,
+                         @Value("${filmorate.metrics.sql.enabled:false}") boolean sqlMetricsEnabled,
+                         @Value("${filmorate.metrics.sql.debug-headers:false}") boolean debugHeaders) {
+        this.meterRegistry = meterRegistry;
+        this.sqlMetricsEnabled = sqlMetricsEnabled;
+        this.debugHeaders = debugHeaders;
+    }
+
+    @Bean
+    public TimedAspect timedAspect() {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty("filmorate.metrics.sql.enabled")
+    public CountingJdbcTemplate jdbcTemplate(DataSource dataSource, JdbcProperties properties) {
+        CountingJdbcTemplate jdbcTemplate = new CountingJdbcTemplate(dataSource);
+        JdbcProperties.Template template = properties.getTemplate();
+        jdbcTemplate.setFetchSize(template.getFetchSize());
+        jdbcTemplate.setMaxRows(template.getMaxRows());
+        if (template.getQueryTimeout() != null) {
+            jdbcTemplate.setQueryTimeout((int) template.getQueryTimeout().getSeconds());
+        }
+        return jdbcTemplate;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (sqlMetricsEnabled) {
+            registry.addInterceptor(new SqlMetricsInterceptor(meterRegistry, debugHeaders));
+        }
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        if (sqlMetricsEnabled) {
+            configurer.registerCallableInterceptors(new SqlStatisticsCallableInterceptor());
+        }
+    }
+}
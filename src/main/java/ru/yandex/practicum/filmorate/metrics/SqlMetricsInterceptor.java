@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.ModelAndView;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+public class SqlMetricsInterceptor implements AsyncHandlerInterceptor {
+    private final MeterRegistry meterRegistry;
+    private final boolean debugHeaders;
+
+    public SqlMetricsInterceptor(MeterRegistry meterRegistry, boolean debugHeaders) {
+        this.meterRegistry = meterRegistry;
+        this.debugHeaders = debugHeaders;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object statistics = request.getAttribute(SqlStatistics.REQUEST_ATTRIBUTE);
+        if (request.getDispatcherType() == DispatcherType.ASYNC && statistics instanceof SqlStatistics) {
+            SqlStatistics.bind((SqlStatistics) statistics);
+        } else {
+            SqlStatistics.reset();
+            request.setAttribute(SqlStatistics.REQUEST_ATTRIBUTE, SqlStatistics.current());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        SqlStatistics.reset();
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        if (debugHeaders && !response.isCommitted()
+                && !response.containsHeader(SqlStatisticsHeaderAdvice.QUERY_COUNT_HEADER)) {
+            SqlStatistics statistics = SqlStatistics.current();
+            response.setHeader(SqlStatisticsHeaderAdvice.QUERY_COUNT_HEADER,
+                    String.valueOf(statistics.getQueryCount()));
+            response.setHeader(SqlStatisticsHeaderAdvice.ROW_COUNT_HEADER, String.valueOf(statistics.getRowCount()));
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        SqlStatistics statistics = SqlStatistics.current();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("method", request.getMethod(),
+                "uri", pattern == null ? "UNKNOWN" : pattern.toString());
+
+        DistributionSummary.builder("filmorate.sql.queries")
+                .description("Количество SQL-запросов за один HTTP-запрос")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(statistics.getQueryCount());
+        DistributionSummary.builder("filmorate.sql.rows")
+                .description("Количество строк, прочитанных из БД за один HTTP-запрос")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(statistics.getRowCount());
+        SqlStatistics.reset();
+    }
+}
@@ -0,0 +1,44 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+public final class SqlStatistics {
+    static final String REQUEST_ATTRIBUTE = SqlStatistics.class.getName();
+    private static final ThreadLocal<SqlStatistics> CURRENT = ThreadLocal.withInitial(SqlStatistics::new);
+
+    private int queryCount;
+    private long rowCount;
+
+    private SqlStatistics() {
+    }
+
+    public static SqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    public static void reset() {
+        CURRENT.remove();
+    }
+
+    static void bind(SqlStatistics statistics) {
+        CURRENT.set(statistics);
+    }
+
+    void recordQuery() {
+        queryCount++;
+    }
+
+    void recordRow() {
+        rowCount++;
+    }
+
+    void recordRows(int rows) {
+        rowCount += rows;
+    }
+
+    public int getQueryCount() {
+        return queryCount;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+}
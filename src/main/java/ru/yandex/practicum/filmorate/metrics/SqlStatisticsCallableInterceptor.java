@@ -0,0 +1,23 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.util.concurrent.Callable;
+
+public class SqlStatisticsCallableInterceptor implements CallableProcessingInterceptor {
+
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        Object statistics = request.getAttribute(SqlStatistics.REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (statistics instanceof SqlStatistics) {
+            SqlStatistics.bind((SqlStatistics) statistics);
+        }
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+        SqlStatistics.reset();
+    }
+}
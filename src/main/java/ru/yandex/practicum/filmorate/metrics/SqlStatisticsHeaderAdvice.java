@@ -0,0 +1,38 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+@ControllerAdvice
+public class SqlStatisticsHeaderAdvice implements ResponseBodyAdvice<Object> {
+    public static final String QUERY_COUNT_HEADER = "X-Sql-Query-Count";
+    public static final String ROW_COUNT_HEADER = "X-Sql-Row-Count";
+
+    private final boolean debugHeaders;
+
+    public SqlStatisticsHeaderAdvice(@Value("${filmorate.metrics.sql.enabled:false}") boolean sqlMetricsEnabled,
+                                     @Value("${filmorate.metrics.sql.debug-headers:false}") boolean debugHeaders) {
+        this.debugHeaders = sqlMetricsEnabled && debugHeaders;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return debugHeaders;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlStatistics statistics = SqlStatistics.current();
+        response.getHeaders().set(QUERY_COUNT_HEADER, String.valueOf(statistics.getQueryCount()));
+        response.getHeaders().set(ROW_COUNT_HEADER, String.valueOf(statistics.getRowCount()));
+        return body;
+    }
+}
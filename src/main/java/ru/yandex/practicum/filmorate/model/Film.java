@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -21,6 +22,7 @@ public class Film {
     @Positive(message = "Продолжительность фильма должна быть больше 0")
     private long duration;
     private Mpa mpa;
+    @JsonDeserialize(as = SortedIntSet.class)
     private Set<Integer> likes;
     private Set<Genre> genres;
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+@Data
+@AllArgsConstructor
+public class FilmSummary {
+    private int id;
+    private String name;
+    private String description;
+    private LocalDate releaseDate;
+    private long duration;
+    private Mpa mpa;
+    private Set<Genre> genres;
+    private int likesCount;
+}
@@ -0,0 +1,174 @@
+package ru.yandex.practicum.filmorate.model;
+
+import java.util.*;
+
+public class SortedIntSet extends AbstractSet<Integer> {
+    private static final int[] EMPTY = new int[0];
+
+    private int[] values;
+    private int size;
+
+    public SortedIntSet() {
+        values = EMPTY;
+    }
+
+    public SortedIntSet(Collection<Integer> source) {
+        values = new int[source.size()];
+        for (int value : source) {
+            values[size++] = value;
+        }
+        Arrays.sort(values);
+        removeDuplicates();
+    }
+
+    private SortedIntSet(int[] values, int size) {
+        this.values = values;
+        this.size = size;
+    }
+
+    public static SortedIntSet ofSorted(int[] sortedUniqueValues, int size) {
+        return new SortedIntSet(sortedUniqueValues, size);
+    }
+
+    public boolean addInt(int value) {
+        if (size > 0 && values[size - 1] < value) {
+            ensureCapacity();
+            values[size++] = value;
+            return true;
+        }
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index >= 0) {
+            return false;
+        }
+        index = -index - 1;
+        ensureCapacity();
+        System.arraycopy(values, index, values, index + 1, size - index);
+        values[index] = value;
+        size++;
+        return true;
+    }
+
+    public boolean removeInt(int value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    public boolean containsInt(int value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    public int getInt(int index) {
+        Objects.checkIndex(index, size);
+        return values[index];
+    }
+
+    public int[] toIntArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    public SortedIntSet copy() {
+        return new SortedIntSet(Arrays.copyOf(values, size), size);
+    }
+
+    public SortedIntSet intersect(SortedIntSet other) {
+        int[] common = new int[Math.min(size, other.size)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (values[i] < other.values[j]) {
+                i++;
+            } else if (values[i] > other.values[j]) {
+                j++;
+            } else {
+                common[count++] = values[i];
+                i++;
+                j++;
+            }
+        }
+        return new SortedIntSet(common, count);
+    }
+
+    @Override
+    public boolean add(Integer value) {
+        return addInt(value);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Integer && removeInt((Integer) o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Integer && containsInt((Integer) o);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        values = EMPTY;
+        size = 0;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return new Iterator<>() {
+            private int next;
+            private int last = -1;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Integer next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                last = next++;
+                return values[last];
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                removeAt(last);
+                next = last;
+                last = -1;
+            }
+        };
+    }
+
+    private void ensureCapacity() {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(4, size + (size >> 1)));
+        }
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+    }
+
+    private void removeDuplicates() {
+        int unique = 0;
+        for (int i = 0; i < size; i++) {
+            if (unique == 0 || values[unique - 1] != values[i]) {
+                values[unique++] = values[i];
+            }
+        }
+        size = unique;
+    }
+}
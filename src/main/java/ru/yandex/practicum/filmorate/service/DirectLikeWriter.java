@@ -0,0 +1,25 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+@Component
+@ConditionalOnProperty(value = "filmorate.likes.write-behind.enabled", havingValue = "false", matchIfMissing = true)
+public class DirectLikeWriter implements LikeWriter {
+    private final FilmStorage filmStorage;
+
+    public DirectLikeWriter(FilmStorage filmStorage) {
+        this.filmStorage = filmStorage;
+    }
+
+    @Override
+    public void addLike(int userId, int filmId) {
+        filmStorage.addLike(userId, filmId);
+    }
+
+    @Override
+    public void removeLike(int userId, int filmId) {
+        filmStorage.removeLike(userId, filmId);
+    }
+}
@@ -3,24 +3,41 @@ package ru.yandex.practicum.filmorate.service;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.DoesNotExistException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class FilmService {
 
     private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final LikeWriter likeWriter;
 
-    public FilmService(FilmStorage filmStorage) {
+    public FilmService(FilmStorage filmStorage, UserStorage userStorage, LikeWriter likeWriter) {
         this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.likeWriter = likeWriter;
     }
 
     public List<Film> findAll() {
         return filmStorage.findAll();
     }
 
+    public List<Film> findPage(int afterId, int size) {
+        return filmStorage.findPage(afterId, size);
+    }
+
+    public List<FilmSummary> findAllSummaries() {
+        return filmStorage.findAllSummaries();
+    }
+
+    public List<FilmSummary> findSummaryPage(int afterId, int size) {
+        return filmStorage.findSummaryPage(afterId, size);
+    }
+
     public Film findById(int id) {
         return filmStorage.findById(id);
     }
@@ -35,27 +52,50 @@ public class FilmService {
 
     public void addLike(int filmId, int userId) {
         checkFilmAndUserId(filmId, userId);
-        Film film = filmStorage.findById(filmId);
-        film.getLikes().add(userId);
-        filmStorage.addLike(userId, filmId);
+        likeWriter.addLike(userId, filmId);
     }
 
     public void removeLike(int filmId, int userId) {
         checkFilmAndUserId(filmId, userId);
-        Film film = filmStorage.findById(filmId);
-        film.getLikes().remove(userId);
-        filmStorage.removeLike(userId, filmId);
+        likeWriter.removeLike(userId, filmId);
+    }
+
+    public List<Film> findTopLiked(int count, Integer genreId, Integer mpaId, Integer year) {
+        return filmStorage.findPopular(count, genreId, mpaId, year);
+    }
+
+    public List<FilmSummary> findTopLikedSummaries(int count, Integer genreId, Integer mpaId, Integer year) {
+        return filmStorage.findPopularSummaries(count, genreId, mpaId, year);
+    }
+
+    public List<Film> findSimilar(int filmId, int count) {
+        if (!filmStorage.existsById(filmId)) {
+            throw new DoesNotExistException("Фильм с id " + filmId + " не найден");
+        }
+        return filmStorage.findSimilar(filmId, count);
+    }
+
+    public List<Film> findRecommendations(int userId, int count) {
+        if (!userStorage.existsById(userId)) {
+            throw new DoesNotExistException("Пользователь с id " + userId + " не найден");
+        }
+        return filmStorage.findRecommendations(userId, count);
+    }
+
+    public String getVersionTag(int id) {
+        return filmStorage.existsById(id) ? filmStorage.getVersionTag(id) : null;
+    }
+
+    public String getPopularVersionTag() {
+        return filmStorage.getCatalogVersionTag();
     }
 
-    public List<Film> findTopLiked(int count) {
-        return filmStorage.findAll().stream()
-                .sorted((f0, f1) -> -1 * (f0.getLikes().size() - f1.getLikes().size()))
-                .limit(count)
-                .collect(Collectors.toList());
+    public List<Film> search(String query, int count) {
+        return filmStorage.search(query, count);
     }
 
     private void checkFilmAndUserId(int filmId, int userId) {
-        if (filmId < 1 || userId < 1) {
+        if (filmId < 1 || userId < 1 || !filmStorage.existsById(filmId) || !userStorage.existsById(userId)) {
             throw new DoesNotExistException("Введен не существующий идентификатор фильма либо пользователя");
         }
     }
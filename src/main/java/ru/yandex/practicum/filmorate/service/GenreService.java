@@ -21,4 +21,8 @@ public class GenreService {
     public Genre findById(int id) {
         return genreDbStorage.findById(id);
     }
+
+    public String getVersionTag() {
+        return genreDbStorage.getVersionTag();
+    }
 }
\ No newline at end of file
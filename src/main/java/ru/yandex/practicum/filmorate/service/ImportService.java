@@ -0,0 +1,96 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.*;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+@Service
+public class ImportService {
+    private static final Logger log = LoggerFactory.getLogger(ImportService.class);
+
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    public ImportService(FilmStorage filmStorage, UserStorage userStorage, ObjectMapper objectMapper,
+                         Validator validator) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    public ImportResult importFilms(InputStream input, int batchSize) {
+        return importRows(input, Film.class, batchSize, filmStorage::createAll);
+    }
+
+    public ImportResult importUsers(InputStream input, int batchSize) {
+        return importRows(input, User.class, batchSize, userStorage::createAll);
+    }
+
+    public ImportResult importLikes(InputStream input, int batchSize) {
+        return importRows(input, Like.class, batchSize, filmStorage::addLikes);
+    }
+
+    public ImportResult importFriendships(InputStream input, int batchSize) {
+        return importRows(input, Friendship.class, batchSize, userStorage::addFriends);
+    }
+
+    private <T> ImportResult importRows(InputStream input, Class<T> type, int batchSize, Consumer<List<T>> writer) {
+        long start = System.nanoTime();
+        long rows = 0;
+        List<T> batch = new ArrayList<>(batchSize);
+        try (MappingIterator<T> iterator = objectMapper.readerFor(type).readValues(input)) {
+            while (iterator.hasNextValue()) {
+                T value = iterator.nextValue();
+                validate(value, rows + batch.size() + 1);
+                batch.add(value);
+                if (batch.size() == batchSize) {
+                    writer.accept(batch);
+                    rows += batch.size();
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("Ошибка разбора записи " + (rows + batch.size() + 1) + ": "
+                    + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!batch.isEmpty()) {
+            writer.accept(batch);
+            rows += batch.size();
+        }
+
+        long millis = Math.max((System.nanoTime() - start) / 1_000_000, 1);
+        ImportResult result = new ImportResult(rows, millis, rows * 1000 / millis);
+        log.info("Импортировано записей {}: {} за {} мс ({} в секунду)", type.getSimpleName(), rows, millis,
+                result.getRowsPerSecond());
+        return result;
+    }
+
+    private <T> void validate(T value, long rowNumber) {
+        Set<ConstraintViolation<T>> violations = validator.validate(value);
+        if (!violations.isEmpty()) {
+            throw new ValidationException("Запись " + rowNumber + ": " + violations.iterator().next().getMessage());
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package ru.yandex.practicum.filmorate.service;
+
+public interface LikeWriter {
+    void addLike(int userId, int filmId);
+
+    void removeLike(int userId, int filmId);
+}
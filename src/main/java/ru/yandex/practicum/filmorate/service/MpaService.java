@@ -21,4 +21,8 @@ public class MpaService {
     public Mpa findById(int id) {
         return mpaDbStorage.findById(id);
     }
+
+    public String getVersionTag() {
+        return mpaDbStorage.getVersionTag();
+    }
 }
\ No newline at end of file
@@ -6,7 +6,6 @@ import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class UserService {
@@ -20,18 +19,16 @@ public class UserService {
         return new ArrayList<>(userStorage.findAll());
     }
 
+    public List<User> findPage(int afterId, int size) {
+        return userStorage.findPage(afterId, size);
+    }
+
     public User findById(int id) {
         return userStorage.findById(id);
     }
 
     public List<User> findUserFriends(int userId) {
-        List<User> friends = new ArrayList<>();
-
-        for (int id : userStorage.findById(userId).getFriends()) {
-            friends.add(userStorage.findById(id));
-        }
-
-        return friends;
+        return userStorage.findByIds(userStorage.findById(userId).getFriends());
     }
 
     public User createUser(User user) {
@@ -43,49 +40,33 @@ public class UserService {
     }
 
     public void addFriend(int userId, int friendId) {
-        User user1 = userStorage.findById(userId);
-        User user2 = userStorage.findById(friendId);
-
-        if (user1 == null || user2 == null) {
-            throw new DoesNotExistException("Пользователь с запрошенным идентификатором не найден");
-        }
-
-        user1.getFriends().add(friendId);
         userStorage.addFriend(userId, friendId);
     }
 
     public void removeFriend(int userId, int friendId) {
-        User user1 = userStorage.findById(userId);
-        User user2 = userStorage.findById(friendId);
-
-        if (user1 == null || user2 == null) {
-            throw new DoesNotExistException("Пользователь с запрошенным идентификатором не найден");
-        }
-
-        if (!user1.getFriends().contains(friendId)) {
+        if (!userStorage.removeFriend(userId, friendId)) {
+            checkUserExists(userId);
+            checkUserExists(friendId);
             throw new DoesNotExistException("У пользователя с id " + userId + " нет в друзьях пользователя с id " + friendId);
         }
-
-        user1.getFriends().remove(friendId);
-        userStorage.removeFriend(userId, friendId);
     }
 
     public List<User> findMutualFriends(int user1Id, int user2Id) {
-        Set<Integer> user1Friends = userStorage.findById(user1Id).getFriends();
-        Set<Integer> user2Friends = userStorage.findById(user2Id).getFriends();
+        return userStorage.findMutualFriends(user1Id, user2Id);
+    }
 
-        if (user1Friends.isEmpty() || user2Friends.isEmpty()) {
-            return new ArrayList<>();
-        }
+    public List<User> findSuggestions(int userId, int count) {
+        checkUserExists(userId);
+        return userStorage.findSuggestions(userId, count);
+    }
 
-        List<Integer> mutualFriendsId = user1Friends.stream()
-                .filter(user2Friends::contains)
-                .collect(Collectors.toList());
+    public String getVersionTag(int id) {
+        return userStorage.existsById(id) ? userStorage.getVersionTag(id) : null;
+    }
 
-        List<User> mutualFriends = new ArrayList<>();
-        for (int id : mutualFriendsId) {
-            mutualFriends.add(userStorage.findById(id));
+    private void checkUserExists(int userId) {
+        if (!userStorage.existsById(userId)) {
+            throw new DoesNotExistException("Пользователь с запрошенным идентификатором не найден");
         }
-        return mutualFriends;
     }
 }
\ No newline at end of file
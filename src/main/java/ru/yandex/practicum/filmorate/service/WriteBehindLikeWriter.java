@@ -0,0 +1,153 @@
+package ru.yandex.practicum.filmorate.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.ServiceOverloadedException;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+@Component
+@ConditionalOnProperty(value = "filmorate.likes.write-behind.enabled", havingValue = "true")
+public class WriteBehindLikeWriter implements LikeWriter {
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindLikeWriter.class);
+
+    private final FilmStorage filmStorage;
+    private final BlockingQueue<LikeOperation> queue;
+    private final int batchSize;
+    private final long enqueueTimeoutMillis;
+    private final ScheduledExecutorService flusher;
+    private final Object flushLock = new Object();
+    private volatile boolean stopped;
+
+    public WriteBehindLikeWriter(FilmStorage filmStorage, MeterRegistry meterRegistry,
+                                 @Value("${filmorate.likes.write-behind.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${filmorate.likes.write-behind.batch-size:500}") int batchSize,
+                                 @Value("${filmorate.likes.write-behind.flush-interval:200ms}") Duration flushInterval,
+                                 @Value("${filmorate.likes.write-behind.enqueue-timeout:100ms}") Duration enqueueTimeout) {
+        this.filmStorage = filmStorage;
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        enqueueTimeoutMillis = enqueueTimeout.toMillis();
+        Gauge.builder("filmorate.likes.queue.size", queue, Collection::size)
+                .description("Количество лайков, ожидающих записи в БД")
+                .register(meterRegistry);
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "like-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void addLike(int userId, int filmId) {
+        enqueue(new LikeOperation(new Like(filmId, userId), true));
+    }
+
+    @Override
+    public void removeLike(int userId, int filmId) {
+        enqueue(new LikeOperation(new Like(filmId, userId), false));
+    }
+
+    public void flush() {
+        synchronized (flushLock) {
+            List<LikeOperation> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stopped = true;
+        flusher.shutdown();
+        if (!flusher.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Фоновая запись лайков не завершилась вовремя");
+        }
+        flush();
+        log.info("Очередь лайков записана в БД перед остановкой");
+    }
+
+    private void enqueue(LikeOperation operation) {
+        try {
+            if (!queue.offer(operation, enqueueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new ServiceOverloadedException("Очередь записи лайков переполнена, повторите запрос позже");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Запись лайка была прервана");
+        }
+        if (stopped) {
+            flush();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Ошибка при фоновой записи лайков", e);
+        }
+    }
+
+    private void write(List<LikeOperation> batch) {
+        Map<Like, Boolean> latest = new LinkedHashMap<>();
+        for (LikeOperation operation : batch) {
+            latest.put(operation.like, operation.add);
+        }
+
+        List<Like> added = new ArrayList<>();
+        List<Like> removed = new ArrayList<>();
+        for (Map.Entry<Like, Boolean> entry : latest.entrySet()) {
+            if (entry.getValue()) {
+                added.add(entry.getKey());
+            } else {
+                removed.add(entry.getKey());
+            }
+        }
+        apply(removed, filmStorage::removeLikes);
+        apply(added, filmStorage::addLikes);
+        log.debug("Записано лайков: {}, удалено: {}, операций в пакете: {}", added.size(), removed.size(),
+                batch.size());
+    }
+
+    private void apply(List<Like> likes, Consumer<Collection<Like>> writer) {
+        try {
+            writer.accept(likes);
+        } catch (RuntimeException e) {
+            log.warn("Пакетная запись лайков не удалась, повторяем по одному: {}", e.getMessage());
+            for (Like like : likes) {
+                try {
+                    writer.accept(List.of(like));
+                } catch (RuntimeException ex) {
+                    log.error("Не удалось записать лайк {}", like, ex);
+                }
+            }
+        }
+    }
+
+    private static class LikeOperation {
+        private final Like like;
+        private final boolean add;
+
+        private LikeOperation(Like like, boolean add) {
+            this.like = like;
+            this.add = add;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class EntityVersions {
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+    private final Map<Integer, Long> versionsById = new ConcurrentHashMap<>();
+
+    public void bump() {
+        version.incrementAndGet();
+    }
+
+    public void bump(int id) {
+        versionsById.merge(id, version.incrementAndGet(), Math::max);
+    }
+
+    public String tag() {
+        return weak(version.get());
+    }
+
+    public String tag(int id) {
+        return weak(versionsById.getOrDefault(id, 0L));
+    }
+
+    private String weak(long value) {
+        return "W/\"" + epoch + "-" + value + "\"";
+    }
+}
@@ -0,0 +1,160 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.SortedIntSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class FilmCoLikeIndex {
+    private static final SortedIntSet EMPTY = new SortedIntSet();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private SortedIntSet[] likersByFilm = new SortedIntSet[0];
+    private SortedIntSet[] filmsByUser = new SortedIntSet[0];
+
+    public static long pair(int filmId, int userId) {
+        return ((long) filmId << 32) | userId;
+    }
+
+    public void rebuild(long[] likes) {
+        long[] byFilm = Arrays.copyOf(likes, likes.length);
+        long[] byUser = new long[likes.length];
+        Arrays.parallelSetAll(byUser, i -> pair((int) likes[i], (int) (likes[i] >>> 32)));
+
+        ForkJoinTask<SortedIntSet[]> users = ForkJoinPool.commonPool().submit(() -> group(byUser));
+        SortedIntSet[] films = group(byFilm);
+        SortedIntSet[] usersLoaded = users.join();
+
+        lock.writeLock().lock();
+        try {
+            likersByFilm = films;
+            filmsByUser = usersLoaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void add(int filmId, int userId) {
+        lock.writeLock().lock();
+        try {
+            likersByFilm = add(likersByFilm, filmId, userId);
+            filmsByUser = add(filmsByUser, userId, filmId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int filmId, int userId) {
+        lock.writeLock().lock();
+        try {
+            get(likersByFilm, filmId).removeInt(userId);
+            get(filmsByUser, userId).removeInt(filmId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Integer> findSimilar(int filmId, int count) {
+        lock.readLock().lock();
+        try {
+            SortedIntSet likers = get(likersByFilm, filmId);
+            IntCounter scores = new IntCounter();
+            for (int i = 0; i < likers.size(); i++) {
+                SortedIntSet films = get(filmsByUser, likers.getInt(i));
+                for (int j = 0; j < films.size(); j++) {
+                    int otherId = films.getInt(j);
+                    if (otherId != filmId) {
+                        scores.add(otherId, 1);
+                    }
+                }
+            }
+            return scores.top(count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Integer> findRecommendations(int userId, int count) {
+        lock.readLock().lock();
+        try {
+            SortedIntSet liked = get(filmsByUser, userId);
+            IntCounter overlaps = new IntCounter();
+            for (int i = 0; i < liked.size(); i++) {
+                SortedIntSet likers = get(likersByFilm, liked.getInt(i));
+                for (int j = 0; j < likers.size(); j++) {
+                    int otherId = likers.getInt(j);
+                    if (otherId != userId) {
+                        overlaps.add(otherId, 1);
+                    }
+                }
+            }
+
+            IntCounter scores = new IntCounter();
+            for (int slot = 0; slot < overlaps.capacity(); slot++) {
+                int otherId = overlaps.keyAt(slot);
+                if (otherId == 0) {
+                    continue;
+                }
+                SortedIntSet films = get(filmsByUser, otherId);
+                for (int j = 0; j < films.size(); j++) {
+                    int filmId = films.getInt(j);
+                    if (!liked.containsInt(filmId)) {
+                        scores.add(filmId, overlaps.valueAt(slot));
+                    }
+                }
+            }
+            return scores.top(count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static SortedIntSet[] group(long[] pairs) {
+        Arrays.parallelSort(pairs);
+        int maxKey = pairs.length == 0 ? 0 : (int) (pairs[pairs.length - 1] >>> 32);
+        SortedIntSet[] sets = new SortedIntSet[maxKey + 1];
+
+        int start = 0;
+        while (start < pairs.length) {
+            int key = (int) (pairs[start] >>> 32);
+            int end = start;
+            while (end < pairs.length && (int) (pairs[end] >>> 32) == key) {
+                end++;
+            }
+            int[] values = new int[end - start];
+            int size = 0;
+            for (int i = start; i < end; i++) {
+                int value = (int) pairs[i];
+                if (size == 0 || values[size - 1] != value) {
+                    values[size++] = value;
+                }
+            }
+            sets[key] = SortedIntSet.ofSorted(values, size);
+            start = end;
+        }
+        return sets;
+    }
+
+    private static SortedIntSet[] add(SortedIntSet[] sets, int key, int value) {
+        if (key >= sets.length) {
+            sets = Arrays.copyOf(sets, Math.max(key + 1, sets.length + (sets.length >> 1)));
+        }
+        if (sets[key] == null) {
+            sets[key] = new SortedIntSet();
+        }
+        sets[key].addInt(value);
+        return sets;
+    }
+
+    private static SortedIntSet get(SortedIntSet[] sets, int key) {
+        if (key < 0 || key >= sets.length || sets[key] == null) {
+            return EMPTY;
+        }
+        return sets[key];
+    }
+}
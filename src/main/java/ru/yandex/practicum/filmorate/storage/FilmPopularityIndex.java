@@ -0,0 +1,181 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.util.*;
+
+public class FilmPopularityIndex {
+    private static final int[] NO_GENRES = new int[0];
+
+    private final Map<Integer, Integer> likesByFilm = new HashMap<>();
+    private final NavigableSet<Long> ranking = new TreeSet<>();
+    private final Map<Integer, Facets> facetsByFilm = new HashMap<>();
+    private final Map<Integer, NavigableSet<Long>> rankingByGenre = new HashMap<>();
+    private final Map<Integer, NavigableSet<Long>> rankingByMpa = new HashMap<>();
+    private final Map<Integer, NavigableSet<Long>> rankingByYear = new HashMap<>();
+
+    public synchronized void put(int filmId, int likes) {
+        Integer previous = likesByFilm.put(filmId, likes);
+        Facets facets = facetsByFilm.get(filmId);
+        if (previous != null) {
+            unrank(filmId, previous, facets);
+        }
+        rank(filmId, likes, facets);
+    }
+
+    public synchronized void setFacets(Film film) {
+        List<Integer> genreIds = new ArrayList<>();
+        if (film.getGenres() != null) {
+            for (Genre genre : film.getGenres()) {
+                genreIds.add(genre.getId());
+            }
+        }
+        setFacets(film.getId(), film.getMpa() == null ? 0 : film.getMpa().getId(),
+                film.getReleaseDate() == null ? 0 : film.getReleaseDate().getYear(), genreIds);
+    }
+
+    public synchronized void setFacets(int filmId, int mpaId, int year, Collection<Integer> genreIds) {
+        int[] genres = NO_GENRES;
+        if (genreIds != null && !genreIds.isEmpty()) {
+            genres = genreIds.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+        }
+        Facets facets = new Facets(mpaId, year, genres);
+
+        Integer likes = likesByFilm.get(filmId);
+        if (likes != null) {
+            unrank(filmId, likes, facetsByFilm.get(filmId));
+        }
+        facetsByFilm.put(filmId, facets);
+        if (likes != null) {
+            rank(filmId, likes, facets);
+        }
+    }
+
+    public synchronized void addLike(int filmId) {
+        changeLikes(filmId, 1);
+    }
+
+    public synchronized void removeLike(int filmId) {
+        changeLikes(filmId, -1);
+    }
+
+    public synchronized void changeLikes(int filmId, int delta) {
+        put(filmId, Math.max(getLikes(filmId) + delta, 0));
+    }
+
+    public synchronized int getLikes(int filmId) {
+        return likesByFilm.getOrDefault(filmId, 0);
+    }
+
+    public synchronized boolean contains(int filmId) {
+        return likesByFilm.containsKey(filmId);
+    }
+
+    public synchronized List<Integer> findTop(int count) {
+        return findTop(count, null, null, null);
+    }
+
+    public synchronized List<Integer> findTop(int count, Integer genreId, Integer mpaId, Integer year) {
+        NavigableSet<Long> source = ranking;
+        if (genreId != null) {
+            source = smaller(source, rankingByGenre.get(genreId));
+        }
+        if (mpaId != null) {
+            source = smaller(source, rankingByMpa.get(mpaId));
+        }
+        if (year != null) {
+            source = smaller(source, rankingByYear.get(year));
+        }
+
+        boolean filtered = genreId != null || mpaId != null || year != null;
+        List<Integer> top = new ArrayList<>(Math.min(count, source.size()));
+        Iterator<Long> iterator = source.iterator();
+        while (top.size() < count && iterator.hasNext()) {
+            int filmId = iterator.next().intValue();
+            Facets facets = facetsByFilm.get(filmId);
+            if (!filtered || facets != null && facets.matches(genreId, mpaId, year)) {
+                top.add(filmId);
+            }
+        }
+        return top;
+    }
+
+    public synchronized void clear() {
+        likesByFilm.clear();
+        ranking.clear();
+        facetsByFilm.clear();
+        rankingByGenre.clear();
+        rankingByMpa.clear();
+        rankingByYear.clear();
+    }
+
+    private void rank(int filmId, int likes, Facets facets) {
+        long key = rankKey(filmId, likes);
+        ranking.add(key);
+        if (facets == null) {
+            return;
+        }
+        for (int genreId : facets.genreIds) {
+            rankingByGenre.computeIfAbsent(genreId, id -> new TreeSet<>()).add(key);
+        }
+        if (facets.mpaId != 0) {
+            rankingByMpa.computeIfAbsent(facets.mpaId, id -> new TreeSet<>()).add(key);
+        }
+        if (facets.year != 0) {
+            rankingByYear.computeIfAbsent(facets.year, id -> new TreeSet<>()).add(key);
+        }
+    }
+
+    private void unrank(int filmId, int likes, Facets facets) {
+        long key = rankKey(filmId, likes);
+        ranking.remove(key);
+        if (facets == null) {
+            return;
+        }
+        for (int genreId : facets.genreIds) {
+            remove(rankingByGenre, genreId, key);
+        }
+        remove(rankingByMpa, facets.mpaId, key);
+        remove(rankingByYear, facets.year, key);
+    }
+
+    private void remove(Map<Integer, NavigableSet<Long>> rankings, int facet, long key) {
+        NavigableSet<Long> facetRanking = rankings.get(facet);
+        if (facetRanking != null) {
+            facetRanking.remove(key);
+            if (facetRanking.isEmpty()) {
+                rankings.remove(facet);
+            }
+        }
+    }
+
+    private NavigableSet<Long> smaller(NavigableSet<Long> current, NavigableSet<Long> facetRanking) {
+        if (facetRanking == null) {
+            return Collections.emptyNavigableSet();
+        }
+        return facetRanking.size() < current.size() ? facetRanking : current;
+    }
+
+    private long rankKey(int filmId, int likes) {
+        return ((long) (Integer.MAX_VALUE - likes) << 32) | filmId;
+    }
+
+    private static class Facets {
+        private final int mpaId;
+        private final int year;
+        private final int[] genreIds;
+
+        private Facets(int mpaId, int year, int[] genreIds) {
+            this.mpaId = mpaId;
+            this.year = year;
+            this.genreIds = genreIds;
+        }
+
+        private boolean matches(Integer genreId, Integer mpaId, Integer year) {
+            return (genreId == null || Arrays.binarySearch(genreIds, genreId) >= 0)
+                    && (mpaId == null || this.mpaId == mpaId)
+                    && (year == null || this.year == year);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntUnaryOperator;
+
+public class FilmSearchIndex {
+    private static final int MAX_QUERY_TERMS = 16;
+    private static final int MAX_PREFIX_TERMS = 64;
+    private static final int MIN_PREFIX_LENGTH = 3;
+    private static final int MAX_LIKES = (1 << 24) - 1;
+    private static final int NAME_EXACT = 4;
+    private static final int NAME_PREFIX = 3;
+    private static final int DESCRIPTION_EXACT = 2;
+    private static final int DESCRIPTION_PREFIX = 1;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Postings> dictionary = new TreeMap<>();
+    private final Map<Integer, Postings[]> postingsByFilm = new HashMap<>();
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isLetterOrDigit(codePoint)) {
+                int folded = Character.toLowerCase(codePoint);
+                token.appendCodePoint(folded == 'ё' ? 'е' : folded);
+            } else if (token.length() > 0) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (token.length() > 0) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    public void put(int filmId, String name, String description) {
+        Map<String, Boolean> terms = new LinkedHashMap<>();
+        for (String term : tokenize(name)) {
+            terms.put(term, true);
+        }
+        for (String term : tokenize(description)) {
+            terms.putIfAbsent(term, false);
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeFilm(filmId);
+            Postings[] filmPostings = new Postings[terms.size()];
+            int i = 0;
+            for (Map.Entry<String, Boolean> term : terms.entrySet()) {
+                Postings postings = dictionary.computeIfAbsent(term.getKey(), Postings::new);
+                postings.add(filmId, term.getValue());
+                filmPostings[i++] = postings;
+            }
+            postingsByFilm.put(filmId, filmPostings);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int filmId) {
+        lock.writeLock().lock();
+        try {
+            removeFilm(filmId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            dictionary.clear();
+            postingsByFilm.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Integer> search(String query, int count, IntUnaryOperator likes) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.size() > MAX_QUERY_TERMS) {
+            terms = terms.subList(0, MAX_QUERY_TERMS);
+        }
+        if (terms.isEmpty() || count <= 0) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            PriorityQueue<Cursor> cursors = new PriorityQueue<>();
+            for (int termIndex = 0; termIndex < terms.size(); termIndex++) {
+                String term = terms.get(termIndex);
+                Postings exact = dictionary.get(term);
+                if (exact != null) {
+                    cursors.add(new Cursor(exact, termIndex, true));
+                }
+                if (termIndex == terms.size() - 1 && term.length() >= MIN_PREFIX_LENGTH) {
+                    addPrefixCursors(cursors, term, termIndex);
+                }
+            }
+
+            TopIds top = new TopIds(count);
+            int[] termScores = new int[terms.size()];
+            while (!cursors.isEmpty()) {
+                int filmId = cursors.peek().filmId();
+                Arrays.fill(termScores, 0);
+                while (!cursors.isEmpty() && cursors.peek().filmId() == filmId) {
+                    Cursor cursor = cursors.poll();
+                    termScores[cursor.termIndex] = Math.max(termScores[cursor.termIndex], cursor.score());
+                    if (cursor.next()) {
+                        cursors.add(cursor);
+                    }
+                }
+
+                int quality = 0;
+                for (int termScore : termScores) {
+                    quality += termScore;
+                }
+                if (top.accepts(filmId, (quality << 24) | MAX_LIKES)) {
+                    top.offer(filmId, (quality << 24) | Math.min(likes.applyAsInt(filmId), MAX_LIKES));
+                }
+            }
+            return top.toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addPrefixCursors(PriorityQueue<Cursor> cursors, String prefix, int termIndex) {
+        int prefixTerms = 0;
+        for (Postings postings : dictionary.subMap(prefix, false, prefix + Character.MAX_VALUE, false).values()) {
+            if (prefixTerms++ == MAX_PREFIX_TERMS) {
+                return;
+            }
+            cursors.add(new Cursor(postings, termIndex, false));
+        }
+    }
+
+    private void removeFilm(int filmId) {
+        Postings[] filmPostings = postingsByFilm.remove(filmId);
+        if (filmPostings == null) {
+            return;
+        }
+        for (Postings postings : filmPostings) {
+            postings.remove(filmId);
+            if (postings.size == 0) {
+                dictionary.remove(postings.term);
+            }
+        }
+    }
+
+    private static class Postings {
+        private final String term;
+        private int[] entries = new int[2];
+        private int size;
+
+        private Postings(String term) {
+            this.term = term;
+        }
+
+        private void add(int filmId, boolean inName) {
+            int entry = filmId << 1 | (inName ? 1 : 0);
+            int index = size;
+            if (size > 0 && entries[size - 1] > entry) {
+                index = -Arrays.binarySearch(entries, 0, size, entry) - 1;
+            }
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+            System.arraycopy(entries, index, entries, index + 1, size - index);
+            entries[index] = entry;
+            size++;
+        }
+
+        private void remove(int filmId) {
+            int index = Arrays.binarySearch(entries, 0, size, filmId << 1);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            if (index < size && entries[index] >>> 1 == filmId) {
+                System.arraycopy(entries, index + 1, entries, index, size - index - 1);
+                size--;
+            }
+        }
+    }
+
+    private static class Cursor implements Comparable<Cursor> {
+        private final Postings postings;
+        private final int termIndex;
+        private final boolean exact;
+        private int position;
+
+        private Cursor(Postings postings, int termIndex, boolean exact) {
+            this.postings = postings;
+            this.termIndex = termIndex;
+            this.exact = exact;
+        }
+
+        private int filmId() {
+            return postings.entries[position] >>> 1;
+        }
+
+        private int score() {
+            boolean inName = (postings.entries[position] & 1) == 1;
+            if (inName) {
+                return exact ? NAME_EXACT : NAME_PREFIX;
+            }
+            return exact ? DESCRIPTION_EXACT : DESCRIPTION_PREFIX;
+        }
+
+        private boolean next() {
+            return ++position < postings.size;
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            return Integer.compare(filmId(), other.filmId());
+        }
+    }
+}
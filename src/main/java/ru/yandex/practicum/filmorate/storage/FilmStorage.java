@@ -1,19 +1,52 @@
 package ru.yandex.practicum.filmorate.storage;
 
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
+import ru.yandex.practicum.filmorate.model.Like;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface FilmStorage {
     List<Film> findAll();
 
+    List<Film> findPage(int afterId, int size);
+
+    List<FilmSummary> findAllSummaries();
+
+    List<FilmSummary> findSummaryPage(int afterId, int size);
+
     Film create(Film film);
 
+    List<Film> createAll(List<Film> films);
+
     Film update(Film film);
 
     Film findById(int id);
 
+    boolean existsById(int id);
+
     void addLike(int userId, int filmId);
 
     void removeLike(int userId, int filmId);
+
+    void addLikes(Collection<Like> likes);
+
+    void removeLikes(Collection<Like> likes);
+
+    List<Film> findPopular(int count);
+
+    List<Film> findPopular(int count, Integer genreId, Integer mpaId, Integer year);
+
+    List<FilmSummary> findPopularSummaries(int count, Integer genreId, Integer mpaId, Integer year);
+
+    List<Film> findSimilar(int filmId, int count);
+
+    List<Film> findRecommendations(int userId, int count);
+
+    List<Film> search(String query, int count);
+
+    String getVersionTag(int id);
+
+    String getCatalogVersionTag();
 }
\ No newline at end of file
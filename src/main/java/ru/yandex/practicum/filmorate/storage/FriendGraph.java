@@ -0,0 +1,196 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class FriendGraph {
+    private static final int[] EMPTY = new int[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int[] offsets = {0};
+    private int[] targets = EMPTY;
+    private int[][] changedRows = new int[0][];
+    private int changedRowCount;
+    private int vertexCount = 1;
+
+    public static long edge(int userId, int friendId) {
+        return ((long) userId << 32) | friendId;
+    }
+
+    public void rebuild(long[] edges) {
+        long[] sorted = Arrays.copyOf(edges, edges.length);
+        Arrays.parallelSort(sorted);
+        int maxUserId = sorted.length == 0 ? 0 : (int) (sorted[sorted.length - 1] >>> 32);
+        int maxId = maxUserId;
+
+        int[] newOffsets = new int[maxUserId + 2];
+        int[] newTargets = new int[sorted.length];
+        int size = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i > 0 && sorted[i] == sorted[i - 1]) {
+                continue;
+            }
+            newOffsets[(int) (sorted[i] >>> 32) + 1]++;
+            newTargets[size++] = (int) sorted[i];
+            maxId = Math.max(maxId, (int) sorted[i]);
+        }
+        for (int i = 1; i < newOffsets.length; i++) {
+            newOffsets[i] += newOffsets[i - 1];
+        }
+
+        lock.writeLock().lock();
+        try {
+            offsets = newOffsets;
+            targets = size == newTargets.length ? newTargets : Arrays.copyOf(newTargets, size);
+            changedRows = new int[0][];
+            changedRowCount = 0;
+            vertexCount = maxId + 1;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void add(int userId, int friendId) {
+        lock.writeLock().lock();
+        try {
+            int start = rowStart(userId);
+            int end = rowEnd(userId);
+            int[] row = rowArray(userId);
+            int index = Arrays.binarySearch(row, start, end, friendId);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            vertexCount = Math.max(vertexCount, Math.max(userId, friendId) + 1);
+            int[] changed = new int[end - start + 1];
+            System.arraycopy(row, start, changed, 0, index - start);
+            changed[index - start] = friendId;
+            System.arraycopy(row, index, changed, index - start + 1, end - index);
+            replaceRow(userId, changed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int userId, int friendId) {
+        lock.writeLock().lock();
+        try {
+            int start = rowStart(userId);
+            int end = rowEnd(userId);
+            int[] row = rowArray(userId);
+            int index = Arrays.binarySearch(row, start, end, friendId);
+            if (index < 0) {
+                return;
+            }
+            int[] changed = new int[end - start - 1];
+            System.arraycopy(row, start, changed, 0, index - start);
+            System.arraycopy(row, index + 1, changed, index - start, end - index - 1);
+            replaceRow(userId, changed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Integer> findSuggestions(int userId, int count) {
+        lock.readLock().lock();
+        try {
+            int start = rowStart(userId);
+            int end = rowEnd(userId);
+            if (start == end) {
+                return new ArrayList<>();
+            }
+            int[] friends = rowArray(userId);
+            int[] mutualFriends = new int[vertexCount];
+            mutualFriends[userId] = -1;
+            for (int i = start; i < end; i++) {
+                mutualFriends[friends[i]] = -1;
+            }
+
+            int[] found = new int[1024];
+            int foundCount = 0;
+            for (int i = start; i < end; i++) {
+                int friendId = friends[i];
+                int[] candidates = rowArray(friendId);
+                int candidateEnd = rowEnd(friendId);
+                for (int j = rowStart(friendId); j < candidateEnd; j++) {
+                    int candidateId = candidates[j];
+                    if (mutualFriends[candidateId] == 0) {
+                        if (foundCount == found.length) {
+                            found = Arrays.copyOf(found, foundCount * 2);
+                        }
+                        found[foundCount++] = candidateId;
+                    }
+                    if (mutualFriends[candidateId] >= 0) {
+                        mutualFriends[candidateId]++;
+                    }
+                }
+            }
+
+            TopIds top = new TopIds(Math.min(count, foundCount));
+            for (int i = 0; i < foundCount; i++) {
+                top.offer(found[i], mutualFriends[found[i]]);
+            }
+            return top.toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] rowArray(int userId) {
+        if (isChanged(userId)) {
+            return changedRows[userId];
+        }
+        return userId >= 0 && userId < offsets.length - 1 ? targets : EMPTY;
+    }
+
+    private int rowStart(int userId) {
+        if (isChanged(userId)) {
+            return 0;
+        }
+        return userId >= 0 && userId < offsets.length - 1 ? offsets[userId] : 0;
+    }
+
+    private int rowEnd(int userId) {
+        if (isChanged(userId)) {
+            return changedRows[userId].length;
+        }
+        return userId >= 0 && userId < offsets.length - 1 ? offsets[userId + 1] : 0;
+    }
+
+    private boolean isChanged(int userId) {
+        return userId >= 0 && userId < changedRows.length && changedRows[userId] != null;
+    }
+
+    private void replaceRow(int userId, int[] row) {
+        if (userId >= changedRows.length) {
+            changedRows = Arrays.copyOf(changedRows, Math.max(userId + 1, changedRows.length * 2));
+        }
+        if (changedRows[userId] == null) {
+            changedRowCount++;
+        }
+        changedRows[userId] = row;
+        if (changedRowCount > offsets.length / 8 + 64) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        int userCount = Math.max(offsets.length - 1, changedRows.length);
+        int[] newOffsets = new int[userCount + 1];
+        for (int userId = 0; userId < userCount; userId++) {
+            newOffsets[userId + 1] = newOffsets[userId] + rowEnd(userId) - rowStart(userId);
+        }
+        int[] newTargets = new int[newOffsets[userCount]];
+        for (int userId = 0; userId < userCount; userId++) {
+            int start = rowStart(userId);
+            System.arraycopy(rowArray(userId), start, newTargets, newOffsets[userId], rowEnd(userId) - start);
+        }
+        offsets = newOffsets;
+        targets = newTargets;
+        changedRows = new int[0][];
+        changedRowCount = 0;
+    }
+}
@@ -1,72 +1,268 @@
 package ru.yandex.practicum.filmorate.storage;
 
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exception.AlreadyExistException;
 import ru.yandex.practicum.filmorate.exception.DoesNotExistException;
 import ru.yandex.practicum.filmorate.exception.UnexpectedException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.SortedIntSet;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 @Component
+@Timed("filmorate.storage")
+@Profile("in-memory")
 public class InMemoryFilmStorage implements FilmStorage {
-    private final Map<Integer, Film> films = new HashMap<>();
+    private final ConcurrentNavigableMap<Integer, Film> films = new ConcurrentSkipListMap<>();
+    private final Map<Integer, SortedIntSet> likes = new ConcurrentHashMap<>();
+    private final FilmPopularityIndex popularityIndex = new FilmPopularityIndex();
+    private final FilmCoLikeIndex coLikeIndex = new FilmCoLikeIndex();
+    private final FilmSearchIndex searchIndex = new FilmSearchIndex();
+    private final EntityVersions versions = new EntityVersions();
     private static final Logger log = LoggerFactory.getLogger(InMemoryFilmStorage.class);
-    private int filmNextId = 1;
+    private final AtomicInteger filmNextId = new AtomicInteger(1);
+    private final UserStorage userStorage;
+
+    public InMemoryFilmStorage(UserStorage userStorage) {
+        this.userStorage = userStorage;
+    }
 
     public List<Film> findAll() {
-        return new ArrayList<>(films.values());
+        return withLikes(films.values());
+    }
+
+    public List<Film> findPage(int afterId, int size) {
+        return withLikes(films.tailMap(afterId, false).values().stream()
+                .limit(size)
+                .collect(Collectors.toList()));
+    }
+
+    public List<FilmSummary> findAllSummaries() {
+        return toSummaries(films.values());
+    }
+
+    public List<FilmSummary> findSummaryPage(int afterId, int size) {
+        return toSummaries(films.tailMap(afterId, false).values().stream()
+                .limit(size)
+                .collect(Collectors.toList()));
     }
 
     public Film findById(int id) {
-        if (films.containsKey(id)) {
-            return films.get(id);
+        Film film = films.get(id);
+        if (film == null) {
+            throw new DoesNotExistException("Фильм не найден");
         }
-        throw new DoesNotExistException("Фильм не найден");
+        return withLikes(film);
+    }
+
+    public boolean existsById(int id) {
+        return films.containsKey(id);
     }
 
     public Film create(Film film) {
-        log.info("Запущен метод по добавлению фильма. Текущее количество фильмов в базе: {}", films.size());
+        log.info("Запущен метод по добавлению фильма");
         if (film.getId() != 0) {
-            log.info("Выполнение метода прервано: фильму был присвоен id {} до его добавления. " +
-                    "Текущее количество фильмов в базе: {}", film.getId(), films.size());
+            log.info("Выполнение метода прервано: фильму был присвоен id {} до его добавления", film.getId());
             throw new AlreadyExistException("Фильм уже добавлен");
         }
         filmValidationTest(film);
-        film.setId(filmNextId);
-        filmNextId++;
-        films.put(film.getId(), film);
-        log.info("Фильм с названием {} и id {} был успешно добавлен. Текущее количество фильмов в базе: {}",
-                film.getName(), film.getId(), films.size());
+        film.setId(filmNextId.getAndIncrement());
+        likes.put(film.getId(), new SortedIntSet());
+        films.put(film.getId(), copyOf(film, null));
+        popularityIndex.setFacets(film);
+        popularityIndex.put(film.getId(), 0);
+        searchIndex.put(film.getId(), film.getName(), film.getDescription());
+        versions.bump();
+        log.info("Фильм с названием {} и id {} был успешно добавлен", film.getName(), film.getId());
         return film;
     }
 
+    public List<Film> createAll(List<Film> filmList) {
+        for (Film film : filmList) {
+            film.setId(0);
+            create(film);
+        }
+        return filmList;
+    }
+
     public Film update(Film film) {
-        log.info("Запущен метод по обновлению фильма. Текущее количество фильмов в базе: {}", films.size());
-        if (!films.containsKey(film.getId())) {
-            log.info("Выполнение метода прервано: фильм с id {} не найден. " + "Текущее количество фильмов в базе: {}",
-                    film.getId(), films.size());
+        log.info("Запущен метод по обновлению фильма с id {}", film.getId());
+        filmValidationTest(film);
+        if (films.replace(film.getId(), copyOf(film, null)) == null) {
+            log.info("Выполнение метода прервано: фильм с id {} не найден", film.getId());
             throw new DoesNotExistException("Запрошенный для обновления фильм не найден");
         }
-        filmValidationTest(film);
-        films.put(film.getId(), film);
-        log.info("Фильм с id {} был успешно обновлен. Текущее количество фильмов в базе: {}", film.getId(), films.size());
+        popularityIndex.setFacets(film);
+        searchIndex.put(film.getId(), film.getName(), film.getDescription());
+        versions.bump(film.getId());
+        log.info("Фильм с id {} был успешно обновлен", film.getId());
         return film;
     }
 
     public void addLike(int userId, int filmId) {
-        throw new UnexpectedException("Данный метод еще не был реализован");
+        SortedIntSet filmLikes = findLikes(filmId);
+        if (!userStorage.existsById(userId)) {
+            throw new DoesNotExistException("Пользователь не найден");
+        }
+        synchronized (filmLikes) {
+            if (filmLikes.addInt(userId)) {
+                popularityIndex.addLike(filmId);
+                coLikeIndex.add(filmId, userId);
+                versions.bump(filmId);
+            }
+        }
     }
 
     public void removeLike(int userId, int filmId) {
-        throw new UnexpectedException("Данный метод еще не был реализован");
+        SortedIntSet filmLikes = findLikes(filmId);
+        synchronized (filmLikes) {
+            if (!filmLikes.removeInt(userId)) {
+                throw new UnexpectedException("Произошла ошибка при удалении лайка");
+            }
+            popularityIndex.removeLike(filmId);
+            coLikeIndex.remove(filmId, userId);
+            versions.bump(filmId);
+        }
+    }
+
+    public void addLikes(Collection<Like> likeList) {
+        for (Like like : likeList) {
+            if (!likes.containsKey(like.getFilmId()) || !userStorage.existsById(like.getUserId())) {
+                throw new DoesNotExistException("Введен не существующий идентификатор фильма либо пользователя");
+            }
+        }
+        for (Like like : likeList) {
+            SortedIntSet filmLikes = likes.get(like.getFilmId());
+            synchronized (filmLikes) {
+                if (filmLikes.addInt(like.getUserId())) {
+                    popularityIndex.addLike(like.getFilmId());
+                    coLikeIndex.add(like.getFilmId(), like.getUserId());
+                    versions.bump(like.getFilmId());
+                }
+            }
+        }
+    }
+
+    public void removeLikes(Collection<Like> likeList) {
+        for (Like like : likeList) {
+            SortedIntSet filmLikes = likes.get(like.getFilmId());
+            if (filmLikes == null) {
+                continue;
+            }
+            synchronized (filmLikes) {
+                if (filmLikes.removeInt(like.getUserId())) {
+                    popularityIndex.removeLike(like.getFilmId());
+                    coLikeIndex.remove(like.getFilmId(), like.getUserId());
+                    versions.bump(like.getFilmId());
+                }
+            }
+        }
+    }
+
+    public List<Film> findPopular(int count) {
+        return findByIds(popularityIndex.findTop(count));
+    }
+
+    public List<Film> findPopular(int count, Integer genreId, Integer mpaId, Integer year) {
+        return findByIds(popularityIndex.findTop(count, genreId, mpaId, year));
+    }
+
+    public List<FilmSummary> findPopularSummaries(int count, Integer genreId, Integer mpaId, Integer year) {
+        List<FilmSummary> summaries = new ArrayList<>(count);
+        for (int id : popularityIndex.findTop(count, genreId, mpaId, year)) {
+            Film film = films.get(id);
+            if (film != null) {
+                summaries.add(toSummary(film));
+            }
+        }
+        return summaries;
+    }
+
+    public List<Film> findSimilar(int filmId, int count) {
+        return findByIds(coLikeIndex.findSimilar(filmId, count));
+    }
+
+    public List<Film> findRecommendations(int userId, int count) {
+        return findByIds(coLikeIndex.findRecommendations(userId, count));
+    }
+
+    public List<Film> search(String query, int count) {
+        return findByIds(searchIndex.search(query, count, popularityIndex::getLikes));
+    }
+
+    public String getVersionTag(int id) {
+        return versions.tag(id);
+    }
+
+    public String getCatalogVersionTag() {
+        return versions.tag();
+    }
+
+    private List<Film> findByIds(List<Integer> ids) {
+        List<Film> result = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            Film film = films.get(id);
+            if (film != null) {
+                result.add(withLikes(film));
+            }
+        }
+        return result;
+    }
+
+    private SortedIntSet findLikes(int filmId) {
+        SortedIntSet filmLikes = likes.get(filmId);
+        if (filmLikes == null) {
+            throw new DoesNotExistException("Фильм не найден");
+        }
+        return filmLikes;
+    }
+
+    private List<Film> withLikes(Collection<Film> filmList) {
+        List<Film> result = new ArrayList<>(filmList.size());
+        for (Film film : filmList) {
+            result.add(withLikes(film));
+        }
+        return result;
+    }
+
+    private Film withLikes(Film film) {
+        SortedIntSet filmLikes = likes.get(film.getId());
+        synchronized (filmLikes) {
+            return copyOf(film, filmLikes.copy());
+        }
+    }
+
+    private List<FilmSummary> toSummaries(Collection<Film> filmList) {
+        List<FilmSummary> summaries = new ArrayList<>(filmList.size());
+        for (Film film : filmList) {
+            summaries.add(toSummary(film));
+        }
+        return summaries;
+    }
+
+    private FilmSummary toSummary(Film film) {
+        return new FilmSummary(film.getId(), film.getName(), film.getDescription(), film.getReleaseDate(),
+                film.getDuration(), film.getMpa(), film.getGenres() == null ? null : new TreeSet<>(film.getGenres()),
+                popularityIndex.getLikes(film.getId()));
+    }
+
+    private Film copyOf(Film film, Set<Integer> filmLikes) {
+        return new Film(film.getId(), film.getName(), film.getDescription(), film.getReleaseDate(),
+                film.getDuration(), film.getMpa(), filmLikes,
+                film.getGenres() == null ? null : new TreeSet<>(film.getGenres()));
     }
 
     private void filmValidationTest(Film film) {
@@ -1,70 +1,179 @@
 package ru.yandex.practicum.filmorate.storage;
 
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exception.AlreadyExistException;
 import ru.yandex.practicum.filmorate.exception.DoesNotExistException;
-import ru.yandex.practicum.filmorate.exception.UnexpectedException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.SortedIntSet;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 @Component
+@Timed("filmorate.storage")
+@Profile("in-memory")
 public class InMemoryUserStorage implements UserStorage {
-    private final Map<Integer, User> users = new HashMap<>();
+    private final ConcurrentNavigableMap<Integer, User> users = new ConcurrentSkipListMap<>();
+    private final Map<Integer, SortedIntSet> friends = new ConcurrentHashMap<>();
+    private final FriendGraph friendGraph = new FriendGraph();
+    private final EntityVersions versions = new EntityVersions();
     private static final Logger log = LoggerFactory.getLogger(InMemoryUserStorage.class);
-    private int userNextId = 1;
+    private final AtomicInteger userNextId = new AtomicInteger(1);
 
     public List<User> findAll() {
-        return new ArrayList<>(users.values());
+        return withFriends(users.values());
+    }
+
+    public List<User> findPage(int afterId, int size) {
+        return withFriends(users.tailMap(afterId, false).values().stream()
+                .limit(size)
+                .collect(Collectors.toList()));
     }
 
     public User findById(int id) {
-        if (!users.containsKey(id)) {
+        User user = users.get(id);
+        if (user == null) {
             throw new DoesNotExistException("Пользователь с идентификатором " + id + " не найден");
         }
+        return withFriends(user);
+    }
+
+    public List<User> findByIds(Collection<Integer> ids) {
+        return withFriends(new TreeSet<>(ids).stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+    }
 
-        return users.get(id);
+    public boolean existsById(int id) {
+        return users.containsKey(id);
     }
 
     public User create(User user) {
-        log.info("Запущен метод по добавлению пользователя. Текущее количество пользователей в базе: {}", users.size());
+        log.info("Запущен метод по добавлению пользователя");
         if (user.getId() != 0) {
-            log.info("Выполнение метода прервано: пользователю был присвоен id {} до его добавления. " + "Текущее количество пользователей в базе: {}", user.getId(), users.size());
+            log.info("Выполнение метода прервано: пользователю был присвоен id {} до его добавления", user.getId());
             throw new AlreadyExistException("Фильм уже был создан");
         }
         userValidationTest(user);
-        user.setId(userNextId);
-        userNextId++;
-        users.put(user.getId(), user);
-        log.info("Пользователь с email {}, логином {} и id {} был успешно добавлен. Текущее количество " + "пользователей в базе: {}", user.getEmail(), user.getLogin(), user.getId(), users.size());
+        user.setId(userNextId.getAndIncrement());
+        friends.put(user.getId(), new SortedIntSet());
+        users.put(user.getId(), copyOf(user, null));
+        log.info("Пользователь с email {}, логином {} и id {} был успешно добавлен", user.getEmail(), user.getLogin(),
+                user.getId());
         return user;
     }
 
+    public List<User> createAll(List<User> userList) {
+        for (User user : userList) {
+            user.setId(0);
+            create(user);
+        }
+        return userList;
+    }
+
     public User update(User user) {
-        log.info("Запущен метод по обновлению пользователя. Текущее количество пользователей в базе: {}", users.size());
-        if (!users.containsKey(user.getId())) {
-            log.info("Выполнение метода прервано: пользователь с id {} не зарегистрирован в базе. Текущее количество " + "пользователей в базе: {}", user.getId(), users.size());
+        log.info("Запущен метод по обновлению пользователя с id {}", user.getId());
+        userValidationTest(user);
+        if (users.replace(user.getId(), copyOf(user, null)) == null) {
+            log.info("Выполнение метода прервано: пользователь с id {} не зарегистрирован в базе", user.getId());
             throw new DoesNotExistException("Пользователь не зарегистрирован");
         }
-        userValidationTest(user);
-        users.put(user.getId(), user);
-        log.info("Данные пользователя с id {} были успешно обновлены. Текущее количество " + "пользователей в базе: {}", user.getId(), users.size());
+        versions.bump(user.getId());
+        log.info("Данные пользователя с id {} были успешно обновлены", user.getId());
         return user;
     }
 
     public void addFriend(int userId, int friendId) {
-        throw new UnexpectedException("Данный метод еще не был реализован");
+        SortedIntSet userFriends = findFriends(userId);
+        findFriends(friendId);
+        synchronized (userFriends) {
+            if (userFriends.addInt(friendId)) {
+                friendGraph.add(userId, friendId);
+                versions.bump(userId);
+            }
+        }
+    }
+
+    public void addFriends(Collection<Friendship> friendships) {
+        for (Friendship friendship : friendships) {
+            addFriend(friendship.getUserId(), friendship.getFriendId());
+        }
+    }
+
+    public boolean removeFriend(int userId, int friendId) {
+        SortedIntSet userFriends = findFriends(userId);
+        synchronized (userFriends) {
+            if (!userFriends.removeInt(friendId)) {
+                return false;
+            }
+            friendGraph.remove(userId, friendId);
+            versions.bump(userId);
+            return true;
+        }
+    }
+
+    public String getVersionTag(int id) {
+        return versions.tag(id);
+    }
+
+    public List<User> findMutualFriends(int userId, int otherId) {
+        SortedIntSet userFriends = snapshot(findFriends(userId));
+        SortedIntSet otherFriends = snapshot(findFriends(otherId));
+        return findByIds(userFriends.intersect(otherFriends));
+    }
+
+    public List<User> findSuggestions(int userId, int count) {
+        List<User> suggestions = new ArrayList<>(count);
+        for (int id : friendGraph.findSuggestions(userId, count)) {
+            User user = users.get(id);
+            if (user != null) {
+                suggestions.add(withFriends(user));
+            }
+        }
+        return suggestions;
+    }
+
+    private SortedIntSet findFriends(int userId) {
+        SortedIntSet userFriends = friends.get(userId);
+        if (userFriends == null) {
+            throw new DoesNotExistException("Пользователь с идентификатором " + userId + " не найден");
+        }
+        return userFriends;
+    }
+
+    private SortedIntSet snapshot(SortedIntSet userFriends) {
+        synchronized (userFriends) {
+            return userFriends.copy();
+        }
+    }
+
+    private List<User> withFriends(Collection<User> userList) {
+        List<User> result = new ArrayList<>(userList.size());
+        for (User user : userList) {
+            result.add(withFriends(user));
+        }
+        return result;
+    }
+
+    private User withFriends(User user) {
+        return copyOf(user, snapshot(friends.get(user.getId())));
     }
 
-    public void removeFriend(int userId, int friendId) {
-        throw new UnexpectedException("Данный метод еще не был реализован");
+    private User copyOf(User user, Set<Integer> userFriends) {
+        return new User(user.getId(), user.getEmail(), user.getLogin(), user.getName(), user.getBirthday(),
+                userFriends);
     }
 
     private void userValidationTest(User user) {
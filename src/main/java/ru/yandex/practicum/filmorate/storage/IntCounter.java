@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.List;
+
+class IntCounter {
+    private int[] keys = new int[16];
+    private int[] values = new int[16];
+    private int size;
+
+    void add(int key, int delta) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == 0) {
+            keys[slot] = key;
+            if (++size * 2 > keys.length) {
+                values[slot] = delta;
+                grow();
+                return;
+            }
+        }
+        values[slot] += delta;
+    }
+
+    int capacity() {
+        return keys.length;
+    }
+
+    int keyAt(int slot) {
+        return keys[slot];
+    }
+
+    int valueAt(int slot) {
+        return values[slot];
+    }
+
+    List<Integer> top(int count) {
+        TopIds top = new TopIds(Math.min(count, size));
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                top.offer(keys[slot], values[slot]);
+            }
+        }
+        return top.toList();
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class TopIds {
+    private final long[] heap;
+    private int size;
+
+    TopIds(int capacity) {
+        heap = new long[capacity];
+    }
+
+    void offer(int id, int score) {
+        if (heap.length == 0) {
+            return;
+        }
+        long rank = ((long) score << 32) | (Integer.MAX_VALUE - id);
+        if (size < heap.length) {
+            heap[size] = rank;
+            siftUp(size++);
+        } else if (rank > heap[0]) {
+            heap[0] = rank;
+            siftDown(0);
+        }
+    }
+
+    boolean accepts(int id, int score) {
+        return size < heap.length || heap.length > 0 && (((long) score << 32) | (Integer.MAX_VALUE - id)) > heap[0];
+    }
+
+    List<Integer> toList() {
+        long[] ranked = Arrays.copyOf(heap, size);
+        Arrays.sort(ranked);
+        List<Integer> ids = new ArrayList<>(size);
+        for (int i = size - 1; i >= 0; i--) {
+            ids.add(Integer.MAX_VALUE - (int) ranked[i]);
+        }
+        return ids;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] <= heap[index]) {
+                return;
+            }
+            swap(parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && heap[left] < heap[smallest]) {
+                smallest = left;
+            }
+            if (right < size && heap[right] < heap[smallest]) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(smallest, index);
+            index = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        long value = heap[i];
+        heap[i] = heap[j];
+        heap[j] = value;
+    }
+}
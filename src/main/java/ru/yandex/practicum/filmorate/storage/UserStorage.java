@@ -1,19 +1,37 @@
 package ru.yandex.practicum.filmorate.storage;
 
+import ru.yandex.practicum.filmorate.model.Friendship;
 import ru.yandex.practicum.filmorate.model.User;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface UserStorage {
     List<User> findAll();
 
+    List<User> findPage(int afterId, int size);
+
     User create(User user);
 
+    List<User> createAll(List<User> users);
+
     User update(User user);
 
     User findById(int id);
 
+    boolean existsById(int id);
+
+    List<User> findByIds(Collection<Integer> ids);
+
     void addFriend(int userId, int friendId);
 
-    void removeFriend(int userId, int friendId);
+    boolean removeFriend(int userId, int friendId);
+
+    void addFriends(Collection<Friendship> friendships);
+
+    List<User> findMutualFriends(int userId, int otherId);
+
+    List<User> findSuggestions(int userId, int count);
+
+    String getVersionTag(int id);
 }
\ No newline at end of file
@@ -1,5 +1,5 @@
-INSERT INTO mpa (name)
-VALUES('G'), ('PG'), ('PG-13'), ('R'), ('NC-17');
+MERGE INTO mpa (mpa_id, name) KEY (mpa_id)
+VALUES (1, 'G'), (2, 'PG'), (3, 'PG-13'), (4, 'R'), (5, 'NC-17');
 
-INSERT INTO genres (name)
-VALUES ('Комедия'),('Драма'), ('Мультфильм'), ('Триллер'), ('Документальный'), ('Боевик');
\ No newline at end of file
+MERGE INTO genres (genre_id, name) KEY (genre_id)
+VALUES (1, 'Комедия'), (2, 'Драма'), (3, 'Мультфильм'), (4, 'Триллер'), (5, 'Документальный'), (6, 'Боевик');
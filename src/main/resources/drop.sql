@@ -0,0 +1 @@
+DROP TABLE IF EXISTS users, friends, mpa, genres, films, film_genres, likes;
@@ -1,5 +1,3 @@
-DROP TABLE IF EXISTS users, friends, mpa, genres, films, film_genres, likes;
-
 CREATE TABLE IF NOT EXISTS users (
 user_id integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
 email varchar(255) NOT NULL UNIQUE,
@@ -30,9 +28,12 @@ name varchar(255) NOT NULL,
 description varchar(200),
 mpa_id integer NOT NULL REFERENCES mpa (mpa_id) ON DELETE CASCADE,
 release_date date,
-duration integer
+duration integer,
+likes_count integer DEFAULT 0 NOT NULL
 );
 
+ALTER TABLE films ADD COLUMN IF NOT EXISTS likes_count integer DEFAULT 0 NOT NULL;
+
 CREATE TABLE IF NOT EXISTS film_genres (
 film_id integer NOT NULL REFERENCES films (film_id) ON DELETE CASCADE,
 genre_id integer NOT NULL REFERENCES genres (genre_id) ON DELETE CASCADE,
@@ -43,4 +44,7 @@ CREATE TABLE IF NOT EXISTS likes (
 film_id integer NOT NULL REFERENCES films (film_id) ON DELETE CASCADE,
 user_id integer NOT NULL REFERENCES users (user_id) ON DELETE CASCADE,
 CONSTRAINT pk_likes PRIMARY KEY (film_id, user_id)
-);
\ No newline at end of file
+);
+
+UPDATE films f SET likes_count = (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.film_id)
+WHERE f.likes_count = 0 AND EXISTS (SELECT 1 FROM likes l WHERE l.film_id = f.film_id);
\ No newline at end of file
@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:filmorate-compression")
+public class CompressionTest {
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private FilmStorage filmStorage;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void popularFilmsCompressionTest() throws IOException, InterruptedException {
+        for (int i = 1; i <= 30; i++) {
+            filmStorage.create(new Film(0, "TestFilm" + i, "TestFilmDescription" + i,
+                    LocalDate.of(1996, 11, 3), 120, new Mpa(1, null), new HashSet<>(), null));
+        }
+        HttpClient client = HttpClient.newHttpClient();
+        URI uri = URI.create("http://localhost:" + port + "/films/popular?count=30");
+
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(uri)
+                .header("Accept-Encoding", "gzip")
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, response.statusCode());
+        assertEquals(Optional.of("gzip"), response.headers().firstValue("Content-Encoding"),
+                "Список популярных фильмов должен сжиматься");
+        String etag = response.headers().firstValue("ETag").orElseThrow();
+        assertTrue(etag.startsWith("W/\""), "ETag должен быть слабым");
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            assertEquals(30, objectMapper.readTree(body).size());
+        }
+
+        HttpResponse<byte[]> notModified = client.send(HttpRequest.newBuilder(uri)
+                .header("Accept-Encoding", "gzip")
+                .header("If-None-Match", etag)
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(304, notModified.statusCode());
+    }
+}
@@ -1,26 +1,53 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 import ru.yandex.practicum.filmorate.exception.AlreadyExistException;
 import ru.yandex.practicum.filmorate.exception.DoesNotExistException;
+import ru.yandex.practicum.filmorate.exception.ServiceOverloadedException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.DirectLikeWriter;
 import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.WriteBehindLikeWriter;
 import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class FilmControllerTest {
+    private InMemoryFilmStorage filmStorage;
+    private InMemoryUserStorage userStorage;
     private FilmController filmController;
 
     @BeforeEach
     void setUp() {
-        filmController = new FilmController(new FilmService(new InMemoryFilmStorage()));
+        userStorage = new InMemoryUserStorage();
+        filmStorage = new InMemoryFilmStorage(userStorage);
+        filmController = new FilmController(new FilmService(filmStorage, userStorage,
+                new DirectLikeWriter(filmStorage)), new ObjectMapper());
     }
 
     @Test
@@ -79,4 +106,289 @@ public class FilmControllerTest {
         assertEquals(1, filmController.findAll().size(), "Неверный размер списка фильмов");
         assertEquals(film1, filmController.findAll().get(0), "Сохранен не тот фильм");
     }
+
+    @Test
+    void findPageTest() {
+        for (int i = 0; i < 5; i++) {
+            filmController.createFilm(new Film(0, "TestFilm" + i, "TestFilmDescription",
+                    LocalDate.of(1996, 11, 3), 120, null, new HashSet<>(), null));
+        }
+
+        List<Film> firstPage = filmController.findPage(0, 2);
+        List<Film> lastPage = filmController.findPage(4, 2);
+
+        assertEquals(List.of(1, 2), List.of(firstPage.get(0).getId(), firstPage.get(1).getId()),
+                "Неверная первая страница");
+        assertEquals(1, lastPage.size(), "Неверный размер последней страницы");
+        assertEquals(5, lastPage.get(0).getId(), "Неверная последняя страница");
+        assertThrows(ValidationException.class, () -> filmController.findPage(0, 0), "Должен выбросить исключение");
+    }
+
+    @Test
+    void concurrentLikesTest() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            filmController.createFilm(new Film(0, "TestFilm" + i, "TestFilmDescription",
+                    LocalDate.of(1996, 11, 3), 120, null, new HashSet<>(), null));
+        }
+        createUsers(1000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int userId = 1; userId <= 1000; userId++) {
+            int id = userId;
+            executor.submit(() -> filmController.addLike(2, id));
+            if (userId % 2 == 0) {
+                executor.submit(() -> filmController.addLike(3, id));
+            }
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS), "Лайки не были добавлены");
+
+        List<Film> popular = filmController.findTopLiked(2, null, null, null, webRequest());
+
+        assertEquals(1000, popular.get(0).getLikes().size(), "Неверное количество лайков");
+        assertEquals(2, popular.get(0).getId(), "Неверный порядок популярных фильмов");
+        assertEquals(3, popular.get(1).getId(), "Неверный порядок популярных фильмов");
+    }
+
+    @Test
+    void writeBehindLikesTest() throws InterruptedException {
+        WriteBehindLikeWriter likeWriter = new WriteBehindLikeWriter(filmStorage, new SimpleMeterRegistry(),
+                100, 10, Duration.ofHours(1), Duration.ofMillis(10));
+        filmController = new FilmController(new FilmService(filmStorage, userStorage, likeWriter), new ObjectMapper());
+        filmController.createFilm(new Film(0, "TestFilm", "TestFilmDescription",
+                LocalDate.of(1996, 11, 3), 120, null, new HashSet<>(), null));
+        createUsers(101);
+
+        for (int userId = 1; userId <= 25; userId++) {
+            filmController.addLike(1, userId);
+        }
+        filmController.removeLike(1, 3);
+        filmController.addLike(1, 3);
+        filmController.removeLike(1, 5);
+
+        assertTrue(filmController.findById(1, webRequest()).getLikes().isEmpty(), "Лайки не должны записываться сразу");
+
+        likeWriter.flush();
+        assertEquals(24, filmController.findById(1, webRequest()).getLikes().size(), "Неверное количество лайков");
+        assertFalse(filmController.findById(1, webRequest()).getLikes().contains(5), "Удаленный лайк был записан");
+
+        for (int userId = 1; userId <= 100; userId++) {
+            filmController.addLike(1, userId);
+        }
+        assertThrows(ServiceOverloadedException.class, () -> filmController.addLike(1, 101),
+                "Должен выбросить исключение");
+
+        likeWriter.shutdown();
+        assertEquals(100, filmController.findById(1, webRequest()).getLikes().size(), "Очередь не была записана при остановке");
+    }
+
+    @Test
+    void likeExistenceTest() {
+        filmController.createFilm(new Film(0, "TestFilm", "TestFilmDescription",
+                LocalDate.of(1996, 11, 3), 120, null, new HashSet<>(), null));
+        createUsers(1);
+
+        assertThrows(DoesNotExistException.class, () -> filmController.addLike(2, 1), "Должен выбросить исключение");
+        assertThrows(DoesNotExistException.class, () -> filmController.addLike(1, 2), "Должен выбросить исключение");
+
+        filmController.addLike(1, 1);
+        filmController.addLike(1, 1);
+        assertEquals(1, filmController.findById(1, webRequest()).getLikes().size(), "Повторный лайк не должен учитываться");
+    }
+
+    @Test
+    void batchLikesExistenceTest() throws InterruptedException {
+        filmController.createFilm(new Film(0, "TestFilm", "TestFilmDescription",
+                LocalDate.of(1996, 11, 3), 120, null, new HashSet<>(), null));
+        createUsers(2);
+
+        assertThrows(DoesNotExistException.class, () -> filmStorage.addLikes(List.of(new Like(1, 1), new Like(1, 3))),
+                "Должен выбросить исключение");
+        assertThrows(DoesNotExistException.class, () -> filmStorage.addLikes(List.of(new Like(2, 1))),
+                "Должен выбросить исключение");
+        assertTrue(filmController.findById(1, webRequest()).getLikes().isEmpty(), "Пакет не должен записываться частично");
+
+        WriteBehindLikeWriter likeWriter = new WriteBehindLikeWriter(filmStorage, new SimpleMeterRegistry(),
+                100, 10, Duration.ofHours(1), Duration.ofMillis(10));
+        likeWriter.addLike(3, 1);
+        likeWriter.addLike(2, 1);
+        likeWriter.flush();
+        likeWriter.shutdown();
+
+        assertEquals(Set.of(2), filmController.findById(1, webRequest()).getLikes(), "Лайк несуществующего пользователя был записан");
+    }
+
+    @Test
+    void similarFilmsTest() {
+        for (int i = 1; i <= 4; i++) {
+            filmController.createFilm(new Film(0, "TestFilm" + i, "TestFilmDescription",
+                    LocalDate.of(1996, 11, 3), 120, null, new HashSet<>(), null));
+        }
+        createUsers(3);
+        filmController.addLike(1, 1);
+        filmController.addLike(2, 1);
+        filmController.addLike(3, 1);
+        filmController.addLike(1, 2);
+        filmController.addLike(2, 2);
+        filmController.addLike(1, 3);
+        filmController.addLike(4, 3);
+
+        assertEquals(List.of(2, 3, 4), ids(filmController.findSimilar(1, 10)), "Неверный список похожих фильмов");
+        assertEquals(List.of(2), ids(filmController.findSimilar(1, 1)), "Неверное ограничение количества");
+
+        filmController.removeLike(3, 1);
+        assertEquals(List.of(2, 4), ids(filmController.findSimilar(1, 10)), "Удаленный лайк не был учтен");
+        assertThrows(DoesNotExistException.class, () -> filmController.findSimilar(5, 10),
+                "Должен выбросить исключение");
+        assertThrows(ValidationException.class, () -> filmController.findSimilar(1, 0),
+                "Должен выбросить исключение");
+    }
+
+    @Test
+    void filteredPopularFilmsTest() {
+        Mpa pg = new Mpa(2, "PG");
+        Mpa r = new Mpa(4, "R");
+        filmController.createFilm(new Film(0, "Comedy", "TestFilmDescription", LocalDate.of(1996, 11, 3), 120, pg,
+                new HashSet<>(), new TreeSet<>(Set.of(new Genre(1, "Комедия")))));
+        filmController.createFilm(new Film(0, "Drama", "TestFilmDescription", LocalDate.of(2001, 5, 1), 120, r,
+                new HashSet<>(), new TreeSet<>(Set.of(new Genre(2, "Драма")))));
+        filmController.createFilm(new Film(0, "Comedy Drama", "TestFilmDescription", LocalDate.of(2001, 7, 1), 120,
+                pg, new HashSet<>(), new TreeSet<>(Set.of(new Genre(1, "Комедия"), new Genre(2, "Драма")))));
+        createUsers(3);
+        filmController.addLike(2, 1);
+        filmController.addLike(2, 2);
+        filmController.addLike(2, 3);
+        filmController.addLike(3, 1);
+        filmController.addLike(3, 2);
+        filmController.addLike(1, 1);
+
+        assertEquals(List.of(2, 3, 1), ids(filmController.findTopLiked(10, null, null, null, webRequest())));
+        assertEquals(List.of(3, 1), ids(filmController.findTopLiked(10, 1, null, null, webRequest())), "Неверный фильтр по жанру");
+        assertEquals(List.of(3, 1), ids(filmController.findTopLiked(10, null, 2, null, webRequest())), "Неверный фильтр по рейтингу");
+        assertEquals(List.of(2, 3), ids(filmController.findTopLiked(10, null, null, 2001, webRequest())), "Неверный фильтр по году");
+        assertEquals(List.of(3), ids(filmController.findTopLiked(10, 2, 2, 2001, webRequest())), "Неверное сочетание фильтров");
+        assertEquals(List.of(), ids(filmController.findTopLiked(10, 6, null, null, webRequest())), "Неизвестный жанр");
+
+        filmController.addLike(1, 2);
+        filmController.addLike(1, 3);
+        assertEquals(List.of(1, 3), ids(filmController.findTopLiked(10, 1, null, null, webRequest())), "Лайки не были учтены");
+
+        filmController.updateFilm(new Film(1, "Comedy", "TestFilmDescription", LocalDate.of(2001, 1, 1), 120, r,
+                new HashSet<>(), null));
+        assertEquals(List.of(3), ids(filmController.findTopLiked(10, 1, null, null, webRequest())), "Обновление жанров не учтено");
+        assertEquals(List.of(1, 2, 3), ids(filmController.findTopLiked(10, null, null, 2001, webRequest())),
+                "Обновление года не учтено");
+        assertEquals(List.of(1, 2), ids(filmController.findTopLiked(10, null, 4, null, webRequest())), "Обновление рейтинга не учтено");
+    }
+
+    @Test
+    void searchTest() {
+        filmController.createFilm(new Film(0, "Ёлки", "Новогодняя комедия", LocalDate.of(2010, 12, 16), 90, null,
+                new HashSet<>(), null));
+        filmController.createFilm(new Film(0, "Ирония судьбы", "Комедия про ёлки и баню", LocalDate.of(1976, 1, 1),
+                184, null, new HashSet<>(), null));
+        filmController.createFilm(new Film(0, "Комедианты", "Drama about actors", LocalDate.of(1967, 10, 31), 160,
+                null, new HashSet<>(), null));
+        filmController.createFilm(new Film(0, "The Matrix", "Sci-Fi action", LocalDate.of(1999, 3, 31), 136, null,
+                new HashSet<>(), null));
+        createUsers(2);
+
+        assertEquals(List.of(1, 2), ids(filmController.search("ЕЛКИ", 10)), "Неверный результат поиска");
+        assertEquals(List.of(3, 1, 2), ids(filmController.search("комед", 10)), "Неверный поиск по префиксу");
+        assertEquals(List.of(4), ids(filmController.search("matrix!", 10)), "Неверный поиск по названию");
+        assertEquals(List.of(), ids(filmController.search("терминатор", 10)), "Неверный поиск");
+
+        filmController.addLike(2, 1);
+        filmController.addLike(2, 2);
+        assertEquals(List.of(2, 1), ids(filmController.search("комедия", 10)), "Лайки не были учтены");
+        assertEquals(List.of(2), ids(filmController.search("комедия", 1)), "Неверное ограничение количества");
+
+        filmController.updateFilm(new Film(1, "Ёлки 2", "Продолжение", LocalDate.of(2011, 12, 15), 90, null,
+                new HashSet<>(), null));
+        assertEquals(List.of(2), ids(filmController.search("комедия", 10)), "Обновление фильма не было учтено");
+        assertThrows(ValidationException.class, () -> filmController.search(" ", 10), "Должен выбросить исключение");
+    }
+
+    @Test
+    void conditionalGetTest() {
+        filmController.createFilm(new Film(0, "TestFilm", "TestFilmDescription",
+                LocalDate.of(1996, 11, 3), 120, null, new HashSet<>(), null));
+        createUsers(1);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertNotNull(filmController.findById(1, conditionalRequest(null, response)));
+        String filmTag = response.getHeader("ETag");
+        assertNotNull(filmTag, "Не передан ETag");
+
+        response = new MockHttpServletResponse();
+        assertNull(filmController.findById(1, conditionalRequest(filmTag, response)));
+        assertEquals(304, response.getStatus(), "Неизмененный фильм должен вернуть 304");
+
+        response = new MockHttpServletResponse();
+        filmController.findTopLiked(10, null, null, null, conditionalRequest(null, response));
+        String popularTag = response.getHeader("ETag");
+
+        filmController.addLike(1, 1);
+        response = new MockHttpServletResponse();
+        assertEquals(1, filmController.findById(1, conditionalRequest(filmTag, response)).getLikes().size());
+        assertEquals(200, response.getStatus(), "Лайк должен изменить версию фильма");
+        assertNotEquals(filmTag, response.getHeader("ETag"));
+
+        response = new MockHttpServletResponse();
+        assertNotNull(filmController.findTopLiked(10, null, null, null, conditionalRequest(popularTag, response)));
+        assertNotEquals(popularTag, response.getHeader("ETag"), "Лайк должен изменить версию списка");
+
+        response = new MockHttpServletResponse();
+        WebRequest missingFilm = conditionalRequest(null, response);
+        assertThrows(DoesNotExistException.class, () -> filmController.findById(2, missingFilm));
+        assertNull(response.getHeader("ETag"), "Для отсутствующего фильма не должен передаваться ETag");
+    }
+
+    @Test
+    void summaryViewTest() {
+        for (int i = 1; i <= 3; i++) {
+            filmController.createFilm(new Film(0, "TestFilm" + i, "TestFilmDescription", LocalDate.of(1996, 11, 3),
+                    120, new Mpa(1, "G"), new HashSet<>(), new TreeSet<>(Set.of(new Genre(i, "Жанр")))));
+        }
+        createUsers(2);
+        filmController.addLike(2, 1);
+        filmController.addLike(2, 2);
+        filmController.addLike(3, 1);
+
+        List<FilmSummary> summaries = filmController.findAllSummaries();
+        assertEquals(List.of(1, 2, 3), summaries.stream().map(FilmSummary::getId).collect(Collectors.toList()));
+        assertEquals(List.of(0, 2, 1), summaries.stream().map(FilmSummary::getLikesCount).collect(Collectors.toList()),
+                "Неверное количество лайков");
+        assertEquals(Set.of(new Genre(2, "Жанр")), summaries.get(1).getGenres());
+
+        List<FilmSummary> page = filmController.findSummaryPage(1, 1);
+        assertEquals(1, page.size());
+        assertEquals(2, page.get(0).getId(), "Неверная страница");
+
+        List<FilmSummary> popular = filmController.findTopLikedSummaries(2, null, null, null, webRequest());
+        assertEquals(List.of(2, 3), popular.stream().map(FilmSummary::getId).collect(Collectors.toList()));
+        assertEquals(2, popular.get(0).getLikesCount());
+    }
+
+    private List<Integer> ids(List<Film> films) {
+        return films.stream().map(Film::getId).collect(Collectors.toList());
+    }
+
+    private void createUsers(int count) {
+        for (int i = 1; i <= count; i++) {
+            userStorage.create(new User(0, "user" + i + "@mail.ru", "user" + i, "User " + i,
+                    LocalDate.of(1990, 1, 1), new HashSet<>()));
+        }
+    }
+
+    private WebRequest conditionalRequest(String ifNoneMatch, MockHttpServletResponse response) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/films");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return new ServletWebRequest(request, response);
+    }
+
+    private WebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
+    }
 }
@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.ImportResult;
+import ru.yandex.practicum.filmorate.service.ImportService;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImportControllerTest {
+    private InMemoryFilmStorage filmStorage;
+    private InMemoryUserStorage userStorage;
+    private ImportController importController;
+
+    @BeforeEach
+    void setUp() {
+        userStorage = new InMemoryUserStorage();
+        filmStorage = new InMemoryFilmStorage(userStorage);
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(new ParameterNamesModule(JsonCreator.Mode.DEFAULT))
+                .build();
+        importController = new ImportController(new ImportService(filmStorage, userStorage, objectMapper,
+                Validation.buildDefaultValidatorFactory().getValidator()));
+    }
+
+    @Test
+    void importTest() {
+        StringBuilder users = new StringBuilder();
+        for (int i = 1; i <= 5; i++) {
+            users.append("{\"email\":\"user").append(i).append("@mail.ru\",\"login\":\"user").append(i)
+                    .append("\",\"birthday\":\"1990-01-01\"}\n");
+        }
+        ImportResult userResult = importController.importUsers(ndjson(users.toString()), 2);
+
+        assertEquals(5, userResult.getRows(), "Неверное количество импортированных пользователей");
+        assertEquals("user3", userStorage.findById(3).getName(), "Пустое имя должно заменяться логином");
+
+        importController.importFilms(ndjson("{\"name\":\"TestFilm1\",\"description\":\"d\"," +
+                "\"releaseDate\":\"1996-11-03\",\"duration\":120}\n{\"name\":\"TestFilm2\",\"description\":\"d\"," +
+                "\"releaseDate\":\"1996-11-03\",\"duration\":120}"), 5000);
+        importController.importLikes(ndjson("{\"filmId\":2,\"userId\":1}\n{\"filmId\":2,\"userId\":2}\n" +
+                "{\"filmId\":1,\"userId\":3}"), 2);
+        importController.importFriendships(ndjson("{\"userId\":1,\"friendId\":2}"), 5000);
+
+        assertEquals(2, filmStorage.findPopular(1).get(0).getId(), "Неверный порядок популярных фильмов");
+        assertEquals(2, filmStorage.findById(2).getLikes().size(), "Неверное количество лайков");
+        assertTrue(userStorage.findById(1).getFriends().contains(2), "Друг не был добавлен");
+    }
+
+    @Test
+    void invalidImportTest() {
+        assertThrows(ValidationException.class, () -> importController.importUsers(
+                ndjson("{\"email\":\"user1mail.ru\",\"login\":\"user1\"}"), 10), "Должен выбросить исключение");
+        assertThrows(ValidationException.class, () -> importController.importLikes(ndjson("{\"filmId\":"), 10),
+                "Должен выбросить исключение");
+        assertThrows(ValidationException.class, () -> importController.importLikes(ndjson(""), 0),
+                "Должен выбросить исключение");
+    }
+
+    private InputStream ndjson(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,59 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.yandex.practicum.filmorate.metrics.SqlStatisticsHeaderAdvice;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:filmorate-sql-metrics",
+        "filmorate.metrics.sql.enabled=true", "filmorate.metrics.sql.debug-headers=true"})
+@AutoConfigureMockMvc
+public class SqlMetricsTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private FilmStorage filmStorage;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void sqlStatisticsTest() throws Exception {
+        for (int i = 1; i <= 3; i++) {
+            filmStorage.create(new Film(0, "TestFilm" + i, "TestFilmDescription" + i,
+                    LocalDate.of(1996, 11, 3), 120, new Mpa(1, null), new HashSet<>(), null));
+        }
+
+        mockMvc.perform(get("/films").param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(SqlStatisticsHeaderAdvice.QUERY_COUNT_HEADER, "2"))
+                .andExpect(header().string(SqlStatisticsHeaderAdvice.ROW_COUNT_HEADER, "3"));
+
+        MvcResult stream = mockMvc.perform(get("/films/stream").param("pageSize", "2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(stream)).andExpect(status().isOk());
+        DistributionSummary queries = meterRegistry.get("filmorate.sql.queries").tag("uri", "/films/stream").summary();
+        DistributionSummary rows = meterRegistry.get("filmorate.sql.rows").tag("uri", "/films/stream").summary();
+        assertEquals(1, queries.count());
+        assertEquals(7, queries.totalAmount(), "Запросы потокового ответа должны учитываться");
+        assertEquals(3, rows.totalAmount(), "Строки потокового ответа должны учитываться");
+    }
+}
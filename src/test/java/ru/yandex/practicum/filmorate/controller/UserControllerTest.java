@@ -1,26 +1,41 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 import ru.yandex.practicum.filmorate.exception.AlreadyExistException;
 import ru.yandex.practicum.filmorate.exception.DoesNotExistException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.DirectLikeWriter;
+import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
 import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class UserControllerTest {
     private UserController userController;
+    private FilmController filmController;
 
     @BeforeEach
     void setUp() {
-        userController = new UserController(new UserService(new InMemoryUserStorage()));
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage(userStorage);
+        FilmService filmService = new FilmService(filmStorage, userStorage, new DirectLikeWriter(filmStorage));
+        userController = new UserController(new UserService(userStorage), filmService, new ObjectMapper());
+        filmController = new FilmController(filmService, new ObjectMapper());
     }
 
     @Test
@@ -86,4 +101,92 @@ public class UserControllerTest {
         assertEquals(1, userController.findAll().size(), "Неверный размер списка пользователей");
         assertEquals(user1, userController.findAll().get(0), "Сохранен не тот пользователь");
     }
-}
\ No newline at end of file
+
+    @Test
+    void friendsTest() {
+        for (int i = 1; i <= 3; i++) {
+            userController.createUser(new User(0, "usermail" + i + "@gmail.com", "user" + i + "Login",
+                    "User Userovich", LocalDate.of(1996, 11, 3), new TreeSet<>()));
+        }
+        userController.addFriend(1, 3);
+        userController.addFriend(2, 3);
+        userController.addFriend(1, 2);
+
+        assertEquals(List.of(2, 3), userController.findById(1, webRequest()).getFriends().stream().collect(Collectors.toList()),
+                "Неверный список друзей");
+        assertEquals(3, userController.findMutualFriends(1, 2).get(0).getId(), "Неверный список общих друзей");
+        assertThrows(DoesNotExistException.class, () -> userController.addFriend(1, 4), "Должен выбросить исключение");
+
+        userController.removeFriend(1, 3);
+
+        assertTrue(userController.findMutualFriends(1, 2).isEmpty(), "Общих друзей быть не должно");
+        assertThrows(DoesNotExistException.class, () -> userController.removeFriend(1, 3),
+                "Должен выбросить исключение");
+        assertThrows(DoesNotExistException.class, () -> userController.removeFriend(1, 4),
+                "Должен выбросить исключение");
+    }
+
+    @Test
+    void suggestionsTest() {
+        for (int i = 1; i <= 200; i++) {
+            userController.createUser(new User(0, "user" + i + "@mail.ru", "user" + i, "User " + i,
+                    LocalDate.of(1996, 11, 3), new TreeSet<>()));
+        }
+        userController.addFriend(1, 2);
+        userController.addFriend(1, 3);
+        userController.addFriend(2, 1);
+        userController.addFriend(2, 3);
+        userController.addFriend(2, 4);
+        userController.addFriend(3, 4);
+        userController.addFriend(3, 5);
+
+        assertEquals(List.of(4, 5), ids(userController.findSuggestions(1, 10)), "Неверный список рекомендуемых друзей");
+        assertEquals(List.of(4), ids(userController.findSuggestions(1, 1)), "Неверное ограничение количества");
+
+        userController.removeFriend(1, 3);
+        assertEquals(List.of(3, 4), ids(userController.findSuggestions(1, 10)), "Удаление друга не было учтено");
+
+        for (int i = 10; i < 200; i++) {
+            userController.addFriend(i, i + 1);
+        }
+        assertEquals(List.of(12), ids(userController.findSuggestions(10, 10)), "Неверный список рекомендуемых друзей");
+        assertThrows(DoesNotExistException.class, () -> userController.findSuggestions(201, 10),
+                "Должен выбросить исключение");
+    }
+
+    private List<Integer> ids(List<User> users) {
+        return users.stream().map(User::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void recommendationsTest() {
+        for (int i = 1; i <= 3; i++) {
+            userController.createUser(new User(0, "user" + i + "@mail.ru", "user" + i, "User " + i,
+                    LocalDate.of(1996, 11, 3), new TreeSet<>()));
+        }
+        for (int i = 1; i <= 4; i++) {
+            filmController.createFilm(new Film(0, "TestFilm" + i, "TestFilmDescription",
+                    LocalDate.of(1996, 11, 3), 120, null, new TreeSet<>(), null));
+        }
+        filmController.addLike(1, 1);
+        filmController.addLike(2, 1);
+        filmController.addLike(3, 1);
+        filmController.addLike(1, 2);
+        filmController.addLike(2, 2);
+        filmController.addLike(1, 3);
+        filmController.addLike(4, 3);
+
+        List<Integer> recommended = userController.findRecommendations(2, 10).stream()
+                .map(Film::getId)
+                .collect(Collectors.toList());
+        assertEquals(List.of(3, 4), recommended, "Неверный список рекомендаций");
+        assertTrue(userController.findRecommendations(1, 10).stream().noneMatch(film -> film.getId() <= 3),
+                "Не должны рекомендоваться уже понравившиеся фильмы");
+        assertThrows(DoesNotExistException.class, () -> userController.findRecommendations(4, 10),
+                "Должен выбросить исключение");
+    }
+
+    private WebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
+    }
+}
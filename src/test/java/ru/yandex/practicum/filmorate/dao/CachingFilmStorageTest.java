@@ -0,0 +1,114 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import ru.yandex.practicum.filmorate.dao.Impl.CachingFilmStorage;
+import ru.yandex.practicum.filmorate.dao.Impl.FilmDbStorage;
+import ru.yandex.practicum.filmorate.dao.Impl.UserDbStorage;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:filmorate-test")
+public class CachingFilmStorageTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MpaDbStorage mpaDbStorage;
+    @Autowired
+    private GenreDbStorage genreDbStorage;
+    @Autowired
+    private UserDbStorage userStorage;
+    @Autowired
+    private FilmDbStorage filmDbStorage;
+    @Autowired
+    private FilmStorage filmStorage;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTestUtils.deleteFromTables(jdbcTemplate, "likes", "film_genres", "friends", "films", "users");
+    }
+
+    @Test
+    void versionTagTest() {
+        User user = userStorage.create(new User(0, "tag@mail.ru", "tagLogin", "Tag",
+                LocalDate.of(1990, 1, 1), new HashSet<>()));
+        String catalogTag = filmStorage.getCatalogVersionTag();
+        Film film = filmStorage.create(new Film(0, "TagFilm", "TagFilmDescription",
+                LocalDate.of(2000, 1, 1), 100, new Mpa(1, null), new HashSet<>(), null));
+        assertNotEquals(catalogTag, filmStorage.getCatalogVersionTag());
+
+        assertTrue(filmStorage.findById(film.getId()).getLikes().isEmpty());
+        String tag = filmStorage.getVersionTag(film.getId());
+        filmDbStorage.addLike(user.getId(), film.getId());
+
+        assertNotEquals(tag, filmStorage.getVersionTag(film.getId()));
+        assertEquals(filmDbStorage.getVersionTag(film.getId()), filmStorage.getVersionTag(film.getId()));
+        assertEquals(filmDbStorage.getCatalogVersionTag(), filmStorage.getCatalogVersionTag());
+        assertEquals(Set.of(user.getId()), filmStorage.findById(film.getId()).getLikes());
+    }
+
+    @Test
+    void invalidationDuringBulkLoadTest() throws Exception {
+        CountDownLatch loaded = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+        AtomicBoolean pause = new AtomicBoolean(true);
+        FilmDbStorage filmDbStorage = new FilmDbStorage(jdbcTemplate, mpaDbStorage, genreDbStorage) {
+            @Override
+            public List<Film> findByIds(Collection<Integer> ids) {
+                List<Film> films = super.findByIds(ids);
+                if (pause.compareAndSet(true, false)) {
+                    loaded.countDown();
+                    try {
+                        invalidated.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return films;
+            }
+        };
+        filmDbStorage.loadPopularityIndex();
+        filmDbStorage.loadCoLikeIndex();
+        CachingFilmStorage cachingStorage = new CachingFilmStorage(filmDbStorage, new SimpleMeterRegistry(),
+                100, Duration.ofMinutes(10));
+
+        User user = userStorage.create(new User(0, "cache@mail.ru", "cacheLogin", "Cache",
+                LocalDate.of(1990, 1, 1), new HashSet<>()));
+        Film film = cachingStorage.create(new Film(0, "CacheFilm", "CacheFilmDescription",
+                LocalDate.of(2000, 1, 1), 100, new Mpa(1, null), new HashSet<>(), null));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<Film>> bulkRead = executor.submit(() -> cachingStorage.findPopular(10));
+            assertTrue(loaded.await(10, TimeUnit.SECONDS));
+            String tagBeforeLike = cachingStorage.getVersionTag(film.getId());
+            cachingStorage.addLike(user.getId(), film.getId());
+            invalidated.countDown();
+
+            assertEquals(Set.of(), bulkRead.get(10, TimeUnit.SECONDS).get(0).getLikes());
+            assertNotEquals(tagBeforeLike, cachingStorage.getVersionTag(film.getId()));
+            assertEquals(Set.of(user.getId()), cachingStorage.findById(film.getId()).getLikes());
+            assertEquals(Set.of(user.getId()), cachingStorage.findPopular(10).get(0).getLikes());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.dao.Impl.CachingFilmStorage;
+import ru.yandex.practicum.filmorate.dao.Impl.FilmDbStorage;
+import ru.yandex.practicum.filmorate.dao.Impl.UserDbStorage;
+import ru.yandex.practicum.filmorate.exception.DoesNotExistException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:filmorate-test")
+public class FilmDbStorageTest {
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private FilmDbStorage filmStorage;
+    @Autowired
+    private CachingFilmStorage cachingStorage;
+    @Autowired
+    private UserDbStorage userStorage;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTestUtils.deleteFromTables(jdbcTemplate, "likes", "film_genres", "friends", "films", "users");
+        filmStorage.loadPopularityIndex();
+        filmStorage.loadCoLikeIndex();
+        filmStorage.loadSearchIndex();
+        userStorage.loadFriendGraph();
+    }
+
+    @Test
+    void concurrentDuplicateLikeTest() throws Exception {
+        User user = createUser("like");
+        Film film = createFilm("LikedFilm", 1, null);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> secondLike = new TransactionTemplate(transactionManager).execute(status -> {
+                filmStorage.addLike(user.getId(), film.getId());
+                Future<?> future = executor.submit(() -> filmStorage.addLike(user.getId(), film.getId()));
+                try {
+                    TimeUnit.MILLISECONDS.sleep(300);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return future;
+            });
+            secondLike.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(Set.of(user.getId()), filmStorage.findById(film.getId()).getLikes());
+        assertEquals(1, likesCount(film.getId()));
+    }
+
+    @Test
+    void hydrationTest() {
+        User first = createUser("first");
+        User second = createUser("second");
+        Film film = createFilm("GenreFilm", 2, genres(3, 1, 2));
+        Film plain = createFilm("PlainFilm", 1, null);
+        filmStorage.addLike(first.getId(), film.getId());
+        filmStorage.addLike(second.getId(), film.getId());
+
+        List<Film> all = filmStorage.findAll();
+        assertEquals(List.of(film.getId(), plain.getId()), ids(all));
+        assertEquals(List.of(1, 2, 3), genreIds(all.get(0)));
+        assertEquals("Комедия", all.get(0).getGenres().iterator().next().getName());
+        assertEquals("PG", all.get(0).getMpa().getName());
+        assertEquals(Set.of(first.getId(), second.getId()), all.get(0).getLikes());
+        assertTrue(all.get(1).getGenres().isEmpty());
+        assertTrue(all.get(1).getLikes().isEmpty());
+
+        List<Film> byIds = filmStorage.findByIds(List.of(plain.getId(), Integer.MAX_VALUE, film.getId()));
+        assertEquals(List.of(plain.getId(), film.getId()), ids(byIds));
+        assertEquals(all.get(0), byIds.get(1));
+        assertEquals(all.get(0), filmStorage.findById(film.getId()));
+    }
+
+    @Test
+    void updateFilmGenreTest() {
+        Film film = createFilm("GenreFilm", 1, genres(1, 2));
+
+        film.setGenres(genres(2, 3));
+        filmStorage.update(film);
+        assertEquals(List.of(2, 3), storedGenreIds(film.getId()));
+        assertEquals(List.of(2, 3), genreIds(filmStorage.findById(film.getId())));
+        assertEquals(List.of(film.getId()), filmStorage.findPopularIds(10, 3, null, null));
+        assertTrue(filmStorage.findPopularIds(10, 1, null, null).isEmpty());
+
+        film.setGenres(null);
+        filmStorage.update(film);
+        assertTrue(storedGenreIds(film.getId()).isEmpty());
+        assertTrue(filmStorage.findById(film.getId()).getGenres().isEmpty());
+    }
+
+    @Test
+    void likesCountTest() {
+        User first = createUser("first");
+        User second = createUser("second");
+        User third = createUser("third");
+        Film film = createFilm("FirstFilm", 1, null);
+        Film other = createFilm("SecondFilm", 1, null);
+
+        filmStorage.addLike(first.getId(), film.getId());
+        filmStorage.addLike(first.getId(), film.getId());
+        filmStorage.addLikes(List.of(new Like(other.getId(), first.getId()), new Like(other.getId(), second.getId()),
+                new Like(other.getId(), third.getId()), new Like(film.getId(), second.getId())));
+        assertEquals(2, likesCount(film.getId()));
+        assertEquals(3, likesCount(other.getId()));
+
+        filmStorage.removeLike(first.getId(), film.getId());
+        filmStorage.removeLikes(List.of(new Like(other.getId(), third.getId()), new Like(other.getId(), Integer.MAX_VALUE)));
+        assertEquals(1, likesCount(film.getId()));
+        assertEquals(2, likesCount(other.getId()));
+        assertEquals(List.of(other.getId(), film.getId()), filmStorage.findPopularIds(10));
+
+        jdbcTemplate.update("UPDATE films SET likes_count = 0");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        assertEquals(1, likesCount(film.getId()));
+        assertEquals(2, likesCount(other.getId()));
+
+        filmStorage.loadPopularityIndex();
+        assertEquals(List.of(other.getId(), film.getId()), filmStorage.findPopularIds(10));
+    }
+
+    @Test
+    void createAllTest() {
+        List<Film> films = filmStorage.createAll(List.of(newFilm("BatchFilm1", 1, genres(2)),
+                newFilm("BatchFilm2", 2, null), newFilm("BatchFilm3", 3, genres(3, 1))));
+
+        assertEquals(3, new HashSet<>(ids(films)).size());
+        for (Film film : films) {
+            Film stored = filmStorage.findById(film.getId());
+            assertEquals(film.getName(), stored.getName());
+            assertEquals(film.getMpa().getId(), stored.getMpa().getId());
+            assertTrue(filmStorage.existsById(film.getId()));
+        }
+        assertEquals(List.of(2), genreIds(filmStorage.findById(films.get(0).getId())));
+        assertEquals(List.of(1, 3), genreIds(filmStorage.findById(films.get(2).getId())));
+        assertEquals(List.of(films.get(1).getId()), filmStorage.searchIds("BatchFilm2", 10));
+    }
+
+    @Test
+    void createAllWithUnknownGenreTest() {
+        List<Film> films = List.of(newFilm("RollbackFilm", 1, null), newFilm("BrokenFilm", 1, genres(99)));
+
+        assertThrows(DoesNotExistException.class, () -> filmStorage.createAll(films), "Должен выбросить исключение");
+        assertTrue(filmStorage.findAll().isEmpty());
+        assertFalse(filmStorage.existsById(films.get(0).getId()));
+    }
+
+    @Test
+    void rolledBackTransactionTest() {
+        User first = createUser("first");
+        User second = createUser("second");
+        Film film = createFilm("FirstFilm", 1, null);
+        Film other = createFilm("SecondFilm", 1, null);
+        filmStorage.addLike(second.getId(), other.getId());
+        Film created = newFilm("RollbackFilm", 1, null);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            filmStorage.create(created);
+            filmStorage.update(new Film(film.getId(), "RenamedFilm", film.getDescription(), film.getReleaseDate(),
+                    film.getDuration(), film.getMpa(), new HashSet<>(), null));
+            filmStorage.addLike(first.getId(), film.getId());
+            filmStorage.addLike(second.getId(), film.getId());
+            status.setRollbackOnly();
+        });
+
+        assertFalse(filmStorage.existsById(created.getId()));
+        assertEquals(List.of(other.getId(), film.getId()), filmStorage.findPopularIds(10));
+        assertTrue(filmStorage.findSimilarIds(other.getId(), 10).isEmpty());
+        assertTrue(filmStorage.searchIds("RollbackFilm", 10).isEmpty());
+        assertTrue(filmStorage.searchIds("RenamedFilm", 10).isEmpty());
+        assertEquals(List.of(film.getId()), filmStorage.searchIds("FirstFilm", 10));
+    }
+
+    @Test
+    void filteredPopularTest() {
+        User first = createUser("first");
+        User second = createUser("second");
+        Film oldComedy = createFilm("OldComedy", 1, genres(1), 2000);
+        Film newDrama = createFilm("NewDrama", 2, genres(1, 2), 2010);
+        Film newFilm = createFilm("NewFilm", 1, genres(2), 2010);
+        filmStorage.addLike(first.getId(), oldComedy.getId());
+        filmStorage.addLike(second.getId(), oldComedy.getId());
+        filmStorage.addLike(first.getId(), newDrama.getId());
+
+        assertEquals(List.of(oldComedy.getId(), newDrama.getId()), ids(filmStorage.findPopular(10, 1, null, null)));
+        assertEquals(List.of(oldComedy.getId(), newFilm.getId()), ids(filmStorage.findPopular(10, null, 1, null)));
+        assertEquals(List.of(newDrama.getId(), newFilm.getId()), ids(filmStorage.findPopular(10, null, null, 2010)));
+        assertEquals(List.of(newFilm.getId()), ids(filmStorage.findPopular(10, 2, 1, 2010)));
+
+        newFilm.setMpa(new Mpa(2, null));
+        newFilm.setReleaseDate(LocalDate.of(2000, 5, 1));
+        newFilm.setGenres(genres(1));
+        filmStorage.update(newFilm);
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals(List.of(oldComedy.getId(), newDrama.getId(), newFilm.getId()),
+                    ids(filmStorage.findPopular(10, 1, null, null)));
+            assertEquals(List.of(newDrama.getId()), ids(filmStorage.findPopular(10, 2, null, null)));
+            assertEquals(List.of(newDrama.getId(), newFilm.getId()), ids(filmStorage.findPopular(10, null, 2, null)));
+            assertEquals(List.of(oldComedy.getId(), newFilm.getId()),
+                    ids(filmStorage.findPopular(10, null, null, 2000)));
+            assertEquals(List.of(newFilm.getId()), ids(filmStorage.findPopular(10, 1, 2, 2000)));
+            assertEquals(List.of(newDrama.getId()), ids(filmStorage.findPopular(10, null, null, 2010)));
+            filmStorage.loadPopularityIndex();
+        }
+    }
+
+    @Test
+    void summaryTest() {
+        User first = createUser("first");
+        User second = createUser("second");
+        Film film = createFilm("GenreFilm", 2, genres(3, 1));
+        Film plain = createFilm("PlainFilm", 1, null);
+        Film other = createFilm("OtherFilm", 1, genres(2));
+        filmStorage.addLike(first.getId(), other.getId());
+        filmStorage.addLike(second.getId(), other.getId());
+        filmStorage.addLike(first.getId(), film.getId());
+        jdbcTemplate.update("DELETE FROM likes");
+
+        List<FilmSummary> all = filmStorage.findAllSummaries();
+        assertEquals(List.of(film.getId(), plain.getId(), other.getId()), summaryIds(all));
+        assertEquals(List.of(1, 0, 2), likesCounts(all));
+        assertEquals(List.of(1, 3), summaryGenreIds(all.get(0)));
+        assertEquals("Комедия", all.get(0).getGenres().iterator().next().getName());
+        assertEquals("PG", all.get(0).getMpa().getName());
+        assertTrue(all.get(1).getGenres().isEmpty());
+
+        List<FilmSummary> page = filmStorage.findSummaryPage(film.getId(), 1);
+        assertEquals(List.of(plain.getId()), summaryIds(page));
+        assertEquals(List.of(0), likesCounts(page));
+        assertEquals(List.of(2), summaryGenreIds(filmStorage.findSummaryPage(plain.getId(), 10).get(0)));
+
+        List<FilmSummary> popular = cachingStorage.findPopularSummaries(10, null, null, null);
+        assertEquals(List.of(other.getId(), film.getId(), plain.getId()), summaryIds(popular));
+        assertEquals(List.of(2, 1, 0), likesCounts(popular));
+        assertEquals(List.of(2), summaryGenreIds(popular.get(0)));
+        assertEquals(all.get(0), popular.get(1));
+
+        List<FilmSummary> comedies = cachingStorage.findPopularSummaries(10, 1, null, null);
+        assertEquals(List.of(film.getId()), summaryIds(comedies));
+        assertEquals(List.of(other.getId(), film.getId()),
+                summaryIds(filmStorage.findSummariesByIds(List.of(other.getId(), Integer.MAX_VALUE, film.getId()))));
+    }
+
+    private User createUser(String login) {
+        return userStorage.create(new User(0, login + "@mail.ru", login, login,
+                LocalDate.of(1990, 1, 1), new HashSet<>()));
+    }
+
+    private Film createFilm(String name, int mpaId, Set<Genre> genres) {
+        return filmStorage.create(newFilm(name, mpaId, genres));
+    }
+
+    private Film createFilm(String name, int mpaId, Set<Genre> genres, int year) {
+        Film film = newFilm(name, mpaId, genres);
+        film.setReleaseDate(LocalDate.of(year, 1, 1));
+        return filmStorage.create(film);
+    }
+
+    private Film newFilm(String name, int mpaId, Set<Genre> genres) {
+        return new Film(0, name, name + "Description", LocalDate.of(2000, 1, 1), 100, new Mpa(mpaId, null),
+                new HashSet<>(), genres);
+    }
+
+    private Set<Genre> genres(int... genreIds) {
+        Set<Genre> genres = new HashSet<>();
+        for (int genreId : genreIds) {
+            genres.add(new Genre(genreId, null));
+        }
+        return genres;
+    }
+
+    private List<Integer> ids(List<Film> films) {
+        return films.stream().map(Film::getId).collect(Collectors.toList());
+    }
+
+    private List<Integer> summaryIds(List<FilmSummary> summaries) {
+        return summaries.stream().map(FilmSummary::getId).collect(Collectors.toList());
+    }
+
+    private List<Integer> likesCounts(List<FilmSummary> summaries) {
+        return summaries.stream().map(FilmSummary::getLikesCount).collect(Collectors.toList());
+    }
+
+    private List<Integer> summaryGenreIds(FilmSummary summary) {
+        return summary.getGenres().stream().map(Genre::getId).collect(Collectors.toList());
+    }
+
+    private List<Integer> genreIds(Film film) {
+        return film.getGenres().stream().map(Genre::getId).collect(Collectors.toList());
+    }
+
+    private List<Integer> storedGenreIds(int filmId) {
+        return jdbcTemplate.queryForList("SELECT genre_id FROM film_genres WHERE film_id = ? ORDER BY genre_id",
+                Integer.class, filmId);
+    }
+
+    private int likesCount(int filmId) {
+        Integer count = jdbcTemplate.queryForObject("SELECT likes_count FROM films WHERE film_id = ?",
+                Integer.class, filmId);
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,133 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.dao.Impl.UserDbStorage;
+import ru.yandex.practicum.filmorate.exception.DoesNotExistException;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:filmorate-test")
+public class UserDbStorageTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private UserDbStorage userStorage;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTestUtils.deleteFromTables(jdbcTemplate, "likes", "film_genres", "friends", "films", "users");
+        userStorage.loadFriendGraph();
+    }
+
+    @Test
+    void createAllTest() {
+        User unnamed = newUser("second");
+        unnamed.setName(null);
+        List<User> users = userStorage.createAll(List.of(newUser("first"), unnamed, newUser("third")));
+
+        assertEquals(3, new HashSet<>(ids(users)).size());
+        for (User user : users) {
+            assertEquals(user.getLogin(), userStorage.findById(user.getId()).getLogin());
+        }
+        assertEquals(ids(users), ids(userStorage.findAll()));
+        assertEquals("second", userStorage.findById(users.get(1).getId()).getName());
+    }
+
+    @Test
+    void updateTest() {
+        User user = userStorage.create(newUser("first"));
+        User missing = newUser("missing");
+        missing.setId(Integer.MAX_VALUE);
+
+        user.setName("Renamed");
+        userStorage.update(user);
+        assertEquals("Renamed", userStorage.findById(user.getId()).getName());
+        assertThrows(DoesNotExistException.class, () -> userStorage.update(missing), "Должен выбросить исключение");
+    }
+
+    @Test
+    void mutualFriendsTest() {
+        List<User> users = createUsers(5);
+        int first = users.get(0).getId();
+        int second = users.get(1).getId();
+        int third = users.get(2).getId();
+        int fourth = users.get(3).getId();
+        int fifth = users.get(4).getId();
+        userStorage.addFriend(first, third);
+        userStorage.addFriend(first, fourth);
+        userStorage.addFriend(first, fifth);
+        userStorage.addFriend(second, fourth);
+        userStorage.addFriend(second, third);
+        userStorage.addFriend(third, first);
+
+        List<User> mutualFriends = userStorage.findMutualFriends(first, second);
+        assertEquals(List.of(third, fourth), ids(mutualFriends));
+        assertEquals(Set.of(first), mutualFriends.get(0).getFriends());
+        assertTrue(mutualFriends.get(1).getFriends().isEmpty());
+        assertTrue(userStorage.findMutualFriends(first, fifth).isEmpty());
+        assertEquals(Set.of(third, fourth, fifth), userStorage.findById(first).getFriends());
+        assertEquals(List.of(third, fourth, fifth), ids(userStorage.findMutualFriends(first, first)));
+        assertThrows(DoesNotExistException.class, () -> userStorage.findMutualFriends(first, Integer.MAX_VALUE),
+                "Должен выбросить исключение");
+
+        assertTrue(userStorage.removeFriend(first, fourth));
+        assertEquals(List.of(third), ids(userStorage.findMutualFriends(first, second)));
+    }
+
+    @Test
+    void rolledBackFriendsTest() {
+        List<User> users = createUsers(3);
+        int first = users.get(0).getId();
+        int second = users.get(1).getId();
+        int third = users.get(2).getId();
+
+        assertThrows(DoesNotExistException.class, () -> userStorage.addFriends(List.of(new Friendship(first, second),
+                new Friendship(second, third), new Friendship(first, Integer.MAX_VALUE))), "Должен выбросить исключение");
+        assertTrue(userStorage.findById(first).getFriends().isEmpty());
+        assertTrue(userStorage.findSuggestions(first, 10).isEmpty());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            userStorage.addFriends(List.of(new Friendship(first, second), new Friendship(second, third)));
+            status.setRollbackOnly();
+        });
+        assertTrue(userStorage.findById(first).getFriends().isEmpty());
+        assertTrue(userStorage.findSuggestions(first, 10).isEmpty());
+
+        userStorage.addFriends(List.of(new Friendship(first, second), new Friendship(second, third)));
+        assertEquals(List.of(third), ids(userStorage.findSuggestions(first, 10)));
+    }
+
+    private List<User> createUsers(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            users.add(userStorage.create(newUser("user" + i)));
+        }
+        return users;
+    }
+
+    private User newUser(String login) {
+        return new User(0, login + "@mail.ru", login, login, LocalDate.of(1990, 1, 1), new HashSet<>());
+    }
+
+    private List<Integer> ids(List<User> users) {
+        return users.stream().map(User::getId).collect(Collectors.toList());
+    }
+}